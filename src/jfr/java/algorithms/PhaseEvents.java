@@ -0,0 +1,43 @@
+package algorithms;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Commits the phases measured by NTGAMetrics as JFR events. The class is only loaded if the events
+ * are enabled, so the metrics work on JVMs without JFR as well.
+ */
+class PhaseEvents implements NTGAMetrics.EventSink {
+
+    @Name("algorithms.NTGAPhase")
+    @Label("NTGA Phase")
+    @Category("NTGA")
+    static class PhaseEvent extends Event {
+
+        @Label("Phase")
+        String phase;
+
+        @Label("Time")
+        @Timespan
+        long time;
+
+        @Label("Count")
+        long count;
+
+    }
+
+    @Override
+    public void commit(NTGAMetrics.Phase phase, long nanos, long count) {
+        PhaseEvent event = new PhaseEvent();
+        if (!event.shouldCommit())
+            return;
+        event.phase = phase.name();
+        event.time = nanos;
+        event.count = count;
+        event.commit();
+    }
+
+}
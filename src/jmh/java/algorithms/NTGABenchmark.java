@@ -0,0 +1,92 @@
+package algorithms;
+
+import io.Instances;
+import model.Solution;
+import model.TravelingThiefProblem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The operators of NTGA on an initial population of the instance.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class NTGABenchmark {
+
+    static final int POPULATION_SIZE = 100;
+
+    @Param({"a280-n279", "fnl4461-n4460", "pla33810-n33809"})
+    String instance;
+
+    TravelingThiefProblem problem;
+
+    NTGA ntga;
+
+    List<Solution> population;
+
+    CloneIndex populationIndex;
+
+    List<Solution> parents;
+
+    // ! offspring of the parents - mutated again and again
+    List<Solution> offspring;
+
+    // ! copy of an individual of the population
+    Solution clone;
+
+    @Setup
+    public void setup() throws IOException {
+        problem = Instances.load(instance);
+        ntga = new NTGA(POPULATION_SIZE, 1);
+        population = ntga.initPopulation(problem, POPULATION_SIZE, ntga.initPackingRate);
+        populationIndex = new CloneIndex(population);
+        parents = population.subList(0, 2);
+        offspring = ntga.orderCrossover(problem, parents, ntga.orderCrossoverRate, ntga.uniformCrossoverRate);
+        clone = population.get(POPULATION_SIZE - 1).copy();
+    }
+
+    @Benchmark
+    public List<Solution> nonDominatedSorting() {
+        ntga.nonDominatedSorting(population, false, true);
+        return population;
+    }
+
+    @Benchmark
+    public List<Solution> orderCrossover() {
+        return ntga.orderCrossover(problem, parents, ntga.orderCrossoverRate, ntga.uniformCrossoverRate);
+    }
+
+    @Benchmark
+    public List<Solution> mutate() {
+        ntga.mutate(offspring, ntga.mutationRate, false);
+        return offspring;
+    }
+
+    @Benchmark
+    public boolean isClonedOffspring() {
+        return ntga.isCloned(offspring.get(0), populationIndex);
+    }
+
+    @Benchmark
+    public boolean isClonedCopy() {
+        return ntga.isCloned(clone, populationIndex);
+    }
+
+}
@@ -0,0 +1,105 @@
+package io;
+
+import model.Solution;
+import model.TravelingThiefProblem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+
+/**
+ * Reading a problem and writing the files of a submission - the code behind Util.readProblem and
+ * Util.writeSolutions, which can not be referenced from a named package. The files are in a
+ * temporary folder.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class IOBenchmark {
+
+    // ! number of solutions written - the most the competition allows
+    static final int NUM_OF_SOLUTIONS = 100;
+
+    @Param({"a280-n279", "fnl4461-n4460", "pla33810-n33809"})
+    String instance;
+
+    Path folder;
+
+    List<Solution> solutions;
+
+    @Setup
+    public void setup() throws IOException {
+        folder = Files.createTempDirectory("benchmark");
+        solutions = Instances.randomSolutions(Instances.load(instance), NUM_OF_SOLUTIONS, 0.05, new Random(1));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(folder)) {
+            for (Path file : (Iterable<Path>) files::iterator)
+                Files.delete(file);
+        }
+        Files.delete(folder);
+    }
+
+    /**
+     * The problem file of the instance in the text or the binary format.
+     */
+    @State(Scope.Benchmark)
+    public static class ProblemFile {
+
+        @Param({"text", "binary"})
+        String format;
+
+        Path path;
+
+        @Setup
+        public void setup(IOBenchmark benchmark) throws IOException {
+            String instance = benchmark.instance;
+            if (format.equals("text")) {
+                path = benchmark.folder.resolve(instance + ".txt");
+                try (InputStream is = getClass().getClassLoader().getResourceAsStream("resources/" + instance + ".txt")) {
+                    Files.copy(is, path);
+                }
+            } else {
+                path = benchmark.folder.resolve(instance + BinaryProblemFormat.EXTENSION);
+                BinaryProblemFormat.write(Instances.load(instance), path);
+            }
+        }
+
+    }
+
+    @Benchmark
+    public TravelingThiefProblem readProblem(ProblemFile file) throws IOException {
+        return file.format.equals("text") ? ProblemReader.read(file.path) : BinaryProblemFormat.read(file.path);
+    }
+
+    @Benchmark
+    public Path writeSolutions() throws IOException {
+        Path x = folder.resolve("solutions.x");
+        SolutionWriter.write(x, folder.resolve("solutions.f"), solutions);
+        return x;
+    }
+
+}
@@ -0,0 +1,64 @@
+package io;
+
+import model.PackingPlan;
+import model.Solution;
+import model.TravelingThiefProblem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * Loads the shipped instances and creates random solutions for the benchmarks.
+ */
+public final class Instances {
+
+    private Instances() {
+    }
+
+    /**
+     * Read a shipped instance from the class path.
+     */
+    public static TravelingThiefProblem load(String instance) throws IOException {
+        InputStream is = Instances.class.getClassLoader().getResourceAsStream("resources/" + instance + ".txt");
+        if (is == null)
+            throw new RuntimeException(String.format("Instance %s not found.", instance));
+        TravelingThiefProblem problem = ProblemReader.read(is);
+        problem.name = instance;
+        return problem;
+    }
+
+    /**
+     * Create evaluated solutions with a random tour and a random packing plan.
+     *
+     * @param packingRate probability of an item to be picked
+     */
+    public static List<Solution> randomSolutions(TravelingThiefProblem problem, int count, double packingRate,
+                                                 Random random) {
+        List<Solution> solutions = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            int[] pi = new int[problem.numOfCities];
+            for (int i = 0; i < pi.length; i++) pi[i] = i;
+            for (int i = pi.length - 1; i > 1; i--) {
+                int j = 1 + random.nextInt(i);
+                int city = pi[i];
+                pi[i] = pi[j];
+                pi[j] = city;
+            }
+
+            long[] z = PackingPlan.create(problem.numOfItems);
+            for (int i = 0; i < problem.numOfItems; i++) {
+                if (random.nextDouble() < packingRate) PackingPlan.set(z, i, true);
+            }
+
+            Solution s = problem.evaluate(pi, z, false);
+            s.index = k;
+            solutions.add(s);
+        }
+        return solutions;
+    }
+
+}
@@ -0,0 +1,68 @@
+package model;
+
+import io.Instances;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dominance checks and the non-dominated set on the objective values of random solutions. The
+ * results are per solution.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DominanceBenchmark {
+
+	// ! number of solutions - the operations per invocation below have to match
+	static final int SIZE = 1000;
+
+	@Param({ "a280-n279", "fnl4461-n4460", "pla33810-n33809" })
+	String instance;
+
+	List<Solution> solutions;
+
+	@Setup
+	public void setup() throws IOException {
+		TravelingThiefProblem problem = Instances.load(instance);
+		solutions = Instances.randomSolutions(problem, SIZE, 0.05, new Random(1));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public void getRelation(Blackhole blackhole) {
+		Solution previous = solutions.get(SIZE - 1);
+		for (Solution s : solutions) {
+			blackhole.consume(s.getRelation(previous));
+			previous = s;
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public NonDominatedSet add() {
+		NonDominatedSet set = new NonDominatedSet();
+		for (Solution s : solutions)
+			set.add(s);
+		return set;
+	}
+
+}
@@ -0,0 +1,57 @@
+package model;
+
+import io.Instances;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluation of a random solution without an evaluation cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EvaluateBenchmark {
+
+	@Param({ "a280-n279", "fnl4461-n4460", "pla33810-n33809" })
+	String instance;
+
+	TravelingThiefProblem problem;
+
+	Solution solution;
+
+	final EvaluationResult result = new EvaluationResult();
+
+	@Setup
+	public void setup() throws IOException {
+		problem = Instances.load(instance);
+		solution = Instances.randomSolutions(problem, 1, 0.05, new Random(1)).get(0);
+	}
+
+	@Benchmark
+	public EvaluationResult evaluate() {
+		problem.evaluate(solution.tour, solution.packingPlan, result);
+		return result;
+	}
+
+	@Benchmark
+	public Solution evaluateSolution() {
+		return problem.evaluate(solution.tour, solution.packingPlan, false);
+	}
+
+}
@@ -0,0 +1,262 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import algorithms.Algorithm;
+import algorithms.IslandNTGA;
+import algorithms.NTGA;
+import algorithms.RandomLocalSearch;
+import model.CeilDistanceMatrix;
+import model.DistanceProvider;
+import model.NonDominatedSet;
+import model.Solution;
+import model.TravelingThiefProblem;
+
+/**
+ * Runs every combination of instance, seed and algorithm as an independent job.
+ *
+ * The jobs are executed by a bounded pool of workers. Before a job starts it reserves the memory
+ * its instance is estimated to need, so small instances run side by side on all cores while the
+ * large ones are only run as many at once as fit into the heap. The jobs already use all cores, so
+ * each job runs on a single thread: its evaluations and islands do not start any further threads.
+ * Each job loads its own problem, is limited by the budget of its algorithm and writes its front into
+ * results/batch/<algorithm>-seed<seed>/ - the files of such a folder have the format of a
+ * submission. The timings of all jobs are written into results/batch/summary.csv.
+ */
+class BatchRunner {
+
+	static final ClassLoader LOADER = BatchRunner.class.getClassLoader();
+
+	// ! instance names are <name><number of cities>-n<number of items>
+	static final Pattern INSTANCE_SIZE = Pattern.compile("[^0-9]*([0-9]+)-n([0-9]+)");
+
+	// ! number of solutions a job keeps in memory at the same time - population, offspring, etc.
+	static final int SOLUTIONS_PER_JOB = 400;
+
+	// ! status of a job which ran out of memory
+	static final String OUT_OF_MEMORY = "out of memory";
+
+	/**
+	 * Creates the algorithm of a job.
+	 */
+	interface AlgorithmFactory {
+		Algorithm create(int numOfSolutions, long seed);
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+
+		List<String> instances = Competition.INSTANCES;
+		long[] seeds = { 1, 2, 3 };
+
+		// budget of the jobs: epochs and wall-clock time for NTGA, evaluations for the local search
+		final int epochs = 1000;
+		final long timeLimit = 10 * 60 * 1000;
+		final int numOfTrials = 100000;
+
+		// the islands share the population of NTGA, so a job needs as much memory as one of NTGA
+		final int numOfIslands = 4;
+
+		Map<String, AlgorithmFactory> algorithms = new LinkedHashMap<>();
+		algorithms.put("NTGA", (numOfSolutions, seed) -> {
+			NTGA ntga = new NTGA(numOfSolutions, seed);
+			ntga.setEpochs(epochs);
+			ntga.setTimeLimit(timeLimit);
+			ntga.setVerbose(false);
+			return ntga;
+		});
+		algorithms.put("IslandNTGA", (numOfSolutions, seed) -> {
+			IslandNTGA islands = new IslandNTGA(Math.max(2, numOfSolutions / numOfIslands), numOfIslands, seed);
+			islands.setNumOfThreads(1);
+			islands.setEpochs(epochs);
+			islands.setTimeLimit(timeLimit);
+			islands.setVerbose(false);
+			return islands;
+		});
+		algorithms.put("RandomLocalSearch", (numOfSolutions, seed) -> new RandomLocalSearch(numOfTrials, 1, seed));
+
+		List<Job> jobs = new ArrayList<>();
+		for (String instance : instances) {
+			for (Map.Entry<String, AlgorithmFactory> algorithm : algorithms.entrySet()) {
+				for (long seed : seeds) {
+					jobs.add(new Job(instance, algorithm.getKey(), algorithm.getValue(), seed));
+				}
+			}
+		}
+
+		run(jobs, Runtime.getRuntime().availableProcessors(), Paths.get("results", "batch"));
+	}
+
+	/**
+	 * Run all jobs and write their fronts and the summary into the output folder.
+	 *
+	 * @param numOfThreads maximal number of jobs running at the same time
+	 */
+	static void run(List<Job> jobs, int numOfThreads, Path outputFolder) throws IOException, InterruptedException {
+
+		Files.createDirectories(outputFolder);
+
+		// the memory of the heap which may be reserved by jobs in megabytes
+		final int memory = (int) Math.max(1, Runtime.getRuntime().maxMemory() / 10 * 8 >> 20);
+		final Semaphore reserved = new Semaphore(memory, true);
+
+		ExecutorService executor = Executors.newFixedThreadPool(numOfThreads);
+		List<Future<Job>> futures = new ArrayList<>();
+		for (Job job : jobs) {
+			futures.add(executor.submit(() -> {
+				job.footprint = (int) Math.min(memory, Math.max(1, estimateFootprint(job.instance) >> 20));
+				reserved.acquire(job.footprint);
+				try {
+					job.run(outputFolder);
+				} finally {
+					reserved.release(job.footprint);
+				}
+				System.out.println(job);
+				return job;
+			}));
+		}
+
+		try (PrintWriter summary = new PrintWriter(Files.newBufferedWriter(outputFolder.resolve("summary.csv")))) {
+			summary.println("instance,algorithm,seed,status,solutions,evaluations,loadMillis,solveMillis,footprintMB");
+			for (Future<Job> future : futures) {
+				Job job = future.get();
+				summary.println(String.format(Locale.US, "%s,%s,%s,%s,%s,%s,%s,%s,%s", job.instance, job.algorithm,
+						job.seed, job.status, job.numOfSolutions, job.evaluations, job.loadMillis, job.solveMillis,
+						job.footprint));
+			}
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Batch failed.", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+
+	}
+
+	/**
+	 * Estimate the memory in bytes a job on the instance needs: the problem, its distances and the
+	 * solutions of the algorithm. If the size is not part of the name the whole heap is assumed.
+	 */
+	static long estimateFootprint(String instance) {
+		Matcher matcher = INSTANCE_SIZE.matcher(instance);
+		if (!matcher.matches())
+			return Runtime.getRuntime().maxMemory();
+
+		long numOfCities = Long.parseLong(matcher.group(1));
+		long numOfItems = Long.parseLong(matcher.group(2));
+
+		long problem = 40 * numOfCities + 40 * numOfItems;
+		long distances = Math.min(CeilDistanceMatrix.memoryUsage((int) numOfCities),
+				DistanceProvider.DEFAULT_MEMORY_BUDGET);
+		long solutions = SOLUTIONS_PER_JOB * (4 * numOfCities + numOfItems / 8 + 64);
+		return problem + distances + solutions;
+	}
+
+	/**
+	 * One run of an algorithm on an instance and its results.
+	 */
+	static class Job {
+
+		final String instance;
+
+		final String algorithm;
+
+		final AlgorithmFactory factory;
+
+		final long seed;
+
+		// ! ok or the message of the error, e.g. if the instance was not found
+		String status = "pending";
+
+		int numOfSolutions = 0;
+
+		// ! evaluations reported by the algorithm or -1 if it does not count them
+		long evaluations = 0;
+
+		long loadMillis = 0;
+
+		long solveMillis = 0;
+
+		// ! reserved memory in megabytes
+		int footprint = 0;
+
+		Job(String instance, String algorithm, AlgorithmFactory factory, long seed) {
+			this.instance = instance;
+			this.algorithm = algorithm;
+			this.factory = factory;
+			this.seed = seed;
+		}
+
+		void run(Path outputFolder) {
+
+			long start = System.currentTimeMillis();
+			TravelingThiefProblem problem;
+			try {
+				problem = Util.readProblem(LOADER, instance);
+			} catch (Exception e) {
+				status = message(e);
+				return;
+			} catch (OutOfMemoryError e) {
+				status = OUT_OF_MEMORY;
+				return;
+			}
+			loadMillis = System.currentTimeMillis() - start;
+
+			// evaluate on one thread instead of the common pool which all jobs would share
+			ForkJoinPool evaluationPool = new ForkJoinPool(1);
+			problem.setEvaluationPool(evaluationPool);
+			try {
+				Algorithm a = factory.create(Competition.numberOfSolutions(problem), seed);
+
+				start = System.currentTimeMillis();
+				List<Solution> solutions = a.solve(problem);
+				solveMillis = System.currentTimeMillis() - start;
+				evaluations = a.getNumOfEvaluations();
+
+				// NTGA returns its whole population - only the non-dominated solutions are submitted
+				NonDominatedSet nds = new NonDominatedSet();
+				for (Solution s : solutions)
+					nds.add(s);
+				List<Solution> front = new ArrayList<>(nds.entries);
+				numOfSolutions = front.size();
+
+				Path folder = outputFolder.resolve(String.format("%s-seed%s", algorithm, seed));
+				Files.createDirectories(folder);
+				Util.writeSolutions(folder.toString(), Competition.TEAM_NAME, problem, front);
+				status = "ok";
+			} catch (Exception e) {
+				status = message(e);
+			} catch (OutOfMemoryError e) {
+				// the memory of the job is free again once it returns, so the other jobs go on
+				status = OUT_OF_MEMORY;
+			} finally {
+				evaluationPool.shutdown();
+			}
+		}
+
+		private static String message(Exception e) {
+			return String.valueOf(e.getMessage()).replace(',', ';');
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s %s seed %s: %s, %s solutions, %s ms", instance, algorithm, seed, status,
+					numOfSolutions, solveMillis);
+		}
+
+	}
+
+}
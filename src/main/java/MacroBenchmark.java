@@ -0,0 +1,341 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import algorithms.Algorithm;
+import algorithms.NTGA;
+import algorithms.RandomLocalSearch;
+import model.NonDominatedSet;
+import model.Solution;
+import model.TravelingThiefProblem;
+
+/**
+ * End-to-end benchmark of the algorithms on all shipped competition instances.
+ *
+ * Each algorithm runs with fixed seeds and a fixed budget per instance size - epochs for NTGA and
+ * evaluations for the local search. The runs are done one after another, so that the measured time,
+ * heap and garbage collection belong to a single run. Before, each algorithm runs once on the first
+ * instance, so the short runs on the large instances are not dominated by the compilation of the
+ * JIT. The results are written to results/benchmark.json and compared with
+ * benchmarks/baseline.json.
+ *
+ * Only the results which do not depend on the machine are checked: a run is a regression if its
+ * hypervolume falls below the baseline or it needs more evaluations for its budget, each by more
+ * than the tolerance. In this case the program exits with 1. The hypervolume of a run is only
+ * compared if its baseline is above 0 - a front without a feasible solution has none. The timings,
+ * e.g. the evaluations per second, are printed next to the ones of the baseline, but the baseline
+ * may have been recorded on a different machine.
+ *
+ * With the argument --record the results are written to benchmarks/baseline.json instead.
+ */
+class MacroBenchmark {
+
+	static final ClassLoader LOADER = MacroBenchmark.class.getClassLoader();
+
+	static final Path BASELINE = Paths.get("benchmarks", "baseline.json");
+
+	static final Path RESULTS = Paths.get("results", "benchmark.json");
+
+	static final long[] SEEDS = { 1, 2 };
+
+	static final String[] ALGORITHMS = { "NTGA", "RandomLocalSearch" };
+
+	// ! budgets of the runs by instance size - epochs of NTGA and evaluations of the local search. NTGA
+	// ! packs more and more items: after 3 epochs on fnl4461-n4460 and 2 epochs on pla33810-n33809 its
+	// ! whole population exceeds the capacity, so the budgets stop before.
+	static final Map<String, int[]> BUDGETS = new LinkedHashMap<>();
+	static {
+		BUDGETS.put("a280", new int[] { 100, 100000 });
+		BUDGETS.put("fnl4461", new int[] { 2, 20000 });
+		BUDGETS.put("pla33810", new int[] { 1, 5000 });
+	}
+
+	// ! number of random pairs of cities to estimate the length of a random tour
+	static final int NUM_OF_SAMPLED_PAIRS = 100000;
+
+	// ! relative loss of hypervolume and additional evaluations which are tolerated - the runs are
+	// ! deterministic
+	static final double QUALITY_TOLERANCE = 0.01;
+
+	// ! a line of the json files - each result is written as a flat object on one line
+	static final Pattern FIELD = Pattern.compile("\"(\\w+)\": (\"([^\"]*)\"|[^,}]+)");
+
+	public static void main(String[] args) throws IOException {
+
+		boolean isRecording = args.length > 0 && args[0].equals("--record");
+
+		List<String> instances = new ArrayList<>();
+		for (String instance : Competition.INSTANCES) {
+			if (LOADER.getResource("resources/" + instance + ".txt") == null)
+				System.out.println(String.format("%s: skipped - instance not found.", instance));
+			else
+				instances.add(instance);
+		}
+
+		// warm up the JIT - the results are not used
+		if (!instances.isEmpty()) {
+			for (String algorithm : ALGORITHMS)
+				run(instances.get(0), algorithm, 0);
+		}
+
+		List<Result> results = new ArrayList<>();
+		for (String instance : instances) {
+			for (String algorithm : ALGORITHMS) {
+				for (long seed : SEEDS) {
+					Result result = run(instance, algorithm, seed);
+					System.out.println(result.toJson());
+					results.add(result);
+				}
+			}
+		}
+
+		if (isRecording) {
+			write(BASELINE, results);
+			System.out.println(String.format("Baseline written to %s.", BASELINE));
+			return;
+		}
+
+		write(RESULTS, results);
+		if (!Files.exists(BASELINE)) {
+			System.out.println(String.format("No baseline %s to compare with.", BASELINE));
+			return;
+		}
+
+		List<String> regressions = compare(read(BASELINE), results);
+		for (String regression : regressions)
+			System.out.println("REGRESSION: " + regression);
+		if (!regressions.isEmpty())
+			System.exit(1);
+		System.out.println("No regressions.");
+
+	}
+
+	/**
+	 * Run the algorithm once on the instance and measure it.
+	 */
+	static Result run(String instance, String algorithm, long seed) throws IOException {
+
+		TravelingThiefProblem problem = Util.readProblem(LOADER, instance);
+		int numOfSolutions = Competition.numberOfSolutions(problem);
+
+		int[] budget = BUDGETS.get(instance.substring(0, instance.indexOf('-')));
+		if (budget == null)
+			throw new RuntimeException(String.format("No budget for instance %s.", instance));
+
+		Result result = new Result(instance, algorithm, seed);
+		Algorithm a;
+		if (algorithm.equals("NTGA")) {
+			NTGA ntga = new NTGA(numOfSolutions, seed);
+			ntga.setEpochs(budget[0]);
+			ntga.setVerbose(false);
+			a = ntga;
+			result.epochs = budget[0];
+		} else {
+			a = new RandomLocalSearch(budget[1], 1, seed);
+		}
+
+		// start the measurement with a clean heap
+		System.gc();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			pool.resetPeakUsage();
+		long gcMillis = gcMillis();
+
+		long start = System.nanoTime();
+		List<Solution> solutions = a.solve(problem);
+		result.wallMillis = (System.nanoTime() - start) / 1e6;
+
+		result.gcMillis = gcMillis() - gcMillis;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP)
+				result.peakHeapMB += pool.getPeakUsage().getUsed() / (double) (1 << 20);
+		}
+
+		result.evaluations = a.getNumOfEvaluations();
+		result.evaluationsPerSecond = result.evaluations / (result.wallMillis / 1000);
+		if (result.epochs > 0)
+			result.millisPerEpoch = result.wallMillis / result.epochs;
+
+		NonDominatedSet front = new NonDominatedSet();
+		for (Solution s : solutions)
+			front.add(s);
+		result.frontSize = front.entries.size();
+		result.hypervolume = hypervolume(problem, front.entries);
+
+		return result;
+	}
+
+	private static long gcMillis() {
+		long millis = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+			millis += Math.max(0, gc.getCollectionTime());
+		return millis;
+	}
+
+	/**
+	 * The hypervolume of a non-dominated front sorted by time, normalized to [0, 1]. The reference
+	 * point is fixed per instance: no profit and the time of a random tour with a full knapsack - the
+	 * expected length of a random tour is the number of cities times the mean distance of two cities,
+	 * which is estimated from pairs drawn with a fixed seed. Solutions which are slower do not count.
+	 * The profit is normalized by the profit of all items.
+	 */
+	static double hypervolume(TravelingThiefProblem problem, Collection<Solution> front) {
+
+		// random access - the entries of a non-dominated set can only be iterated
+		List<Solution> sorted = new ArrayList<>(front);
+
+		Random rand = new Random(0);
+		double distance = 0;
+		for (int k = 0; k < NUM_OF_SAMPLED_PAIRS; k++) {
+			int a = rand.nextInt(problem.numOfCities);
+			int b = rand.nextInt(problem.numOfCities - 1);
+			distance += problem.distance(a, b < a ? b : b + 1);
+		}
+		double referenceTime = problem.numOfCities * (distance / NUM_OF_SAMPLED_PAIRS) / problem.minSpeed;
+
+		double maxProfit = 0;
+		for (double profit : problem.profit)
+			maxProfit += profit;
+
+		double volume = 0;
+		for (int i = 0; i < sorted.size(); i++) {
+			Solution s = sorted.get(i);
+			double next = i + 1 < sorted.size() ? Math.min(sorted.get(i + 1).time, referenceTime) : referenceTime;
+			if (s.time < next && s.profit > 0)
+				volume += (next - s.time) * s.profit;
+		}
+		return volume / (referenceTime * maxProfit);
+	}
+
+	/**
+	 * @return a description of each run which is worse than its baseline
+	 */
+	static List<String> compare(List<Map<String, String>> baseline, List<Result> results) {
+		List<String> regressions = new ArrayList<>();
+		for (Result result : results) {
+			Map<String, String> base = null;
+			for (Map<String, String> b : baseline) {
+				if (b.get("instance").equals(result.instance) && b.get("algorithm").equals(result.algorithm)
+						&& Long.parseLong(b.get("seed")) == result.seed)
+					base = b;
+			}
+			if (base == null) {
+				System.out.println(String.format("%s %s seed %s: no baseline.", result.instance, result.algorithm,
+						result.seed));
+				continue;
+			}
+
+			double throughput = Double.parseDouble(base.get("evaluationsPerSecond"));
+			long evaluations = Long.parseLong(base.get("evaluations"));
+			double hypervolume = Double.parseDouble(base.get("hypervolume"));
+			System.out.println(String.format(Locale.US,
+					"%s %s seed %s: %.6f / %.6f hypervolume, %s / %s evaluations, %.0f / %.0f evaluations per second",
+					result.instance, result.algorithm, result.seed, result.hypervolume, hypervolume, result.evaluations,
+					evaluations, result.evaluationsPerSecond, throughput));
+
+			// the throughput is only printed - it depends on the machine
+			if (evaluations >= 0 && result.evaluations > evaluations * (1 + QUALITY_TOLERANCE))
+				regressions.add(String.format(Locale.US, "%s %s seed %s: %s evaluations, baseline %s",
+						result.instance, result.algorithm, result.seed, result.evaluations, evaluations));
+			if (hypervolume == 0)
+				System.out.println(String.format("%s %s seed %s: hypervolume not compared - the baseline is 0.",
+						result.instance, result.algorithm, result.seed));
+			else if (result.hypervolume < hypervolume * (1 - QUALITY_TOLERANCE))
+				regressions.add(String.format(Locale.US, "%s %s seed %s: hypervolume %.6f, baseline %.6f",
+						result.instance, result.algorithm, result.seed, result.hypervolume, hypervolume));
+		}
+		return regressions;
+	}
+
+	static void write(Path path, List<Result> results) throws IOException {
+		if (path.getParent() != null)
+			Files.createDirectories(path.getParent());
+		try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+			writer.println("[");
+			for (int i = 0; i < results.size(); i++)
+				writer.println("  " + results.get(i).toJson() + (i + 1 < results.size() ? "," : ""));
+			writer.println("]");
+		}
+	}
+
+	/**
+	 * Read the results written by write - each line with an object is one result.
+	 */
+	static List<Map<String, String>> read(Path path) throws IOException {
+		List<Map<String, String>> results = new ArrayList<>();
+		for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+			if (!line.trim().startsWith("{"))
+				continue;
+			Map<String, String> fields = new LinkedHashMap<>();
+			Matcher matcher = FIELD.matcher(line);
+			while (matcher.find())
+				fields.put(matcher.group(1), matcher.group(3) != null ? matcher.group(3) : matcher.group(2).trim());
+			results.add(fields);
+		}
+		return results;
+	}
+
+	/**
+	 * Measurements of one run.
+	 */
+	static class Result {
+
+		final String instance;
+
+		final String algorithm;
+
+		final long seed;
+
+		// ! number of epochs or 0 if the algorithm has none
+		int epochs = 0;
+
+		double wallMillis;
+
+		double millisPerEpoch;
+
+		// ! simulated tours - the problem has no evaluation cache whose hits would count as well
+		long evaluations;
+
+		double evaluationsPerSecond;
+
+		double peakHeapMB;
+
+		long gcMillis;
+
+		int frontSize;
+
+		double hypervolume;
+
+		Result(String instance, String algorithm, long seed) {
+			this.instance = instance;
+			this.algorithm = algorithm;
+			this.seed = seed;
+		}
+
+		String toJson() {
+			return String.format(Locale.US,
+					"{\"instance\": \"%s\", \"algorithm\": \"%s\", \"seed\": %s, \"epochs\": %s, \"wallMillis\": %.1f, "
+							+ "\"millisPerEpoch\": %.3f, \"evaluations\": %s, \"evaluationsPerSecond\": %.1f, "
+							+ "\"peakHeapMB\": %.1f, \"gcMillis\": %s, \"frontSize\": %s, \"hypervolume\": %.8f}",
+					instance, algorithm, seed, epochs, wallMillis, millisPerEpoch, evaluations, evaluationsPerSecond,
+					peakHeapMB, gcMillis, frontSize, hypervolume);
+		}
+
+	}
+
+}
@@ -1,15 +1,14 @@
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Comparator;
 
 import algorithms.Algorithm;
 import algorithms.ExhaustiveSearch;
-import algorithms.LambdaAlgorithm;
 import algorithms.RandomLocalSearch;
 import algorithms.NTGA;
+import algorithms.NTGAMetrics;
 import model.Solution;
 import model.TravelingThiefProblem;
 
@@ -26,12 +25,8 @@ class Runner {
 
 		for (String instance : instanceToRun) {
 
-			// readProblem the problem from the file
-			String fname = String.format("resources/%s.txt", instance);
-			InputStream is = LOADER.getResourceAsStream(fname);
-
-			TravelingThiefProblem problem = Util.readProblem(is);
-			problem.name = instance;
+			// readProblem the problem from the file - the binary file is used if it is up to date
+			TravelingThiefProblem problem = Util.readProblem(LOADER, instance);
 			System.out.println("problem name is: " + problem.name);
 
 			// number of solutions that will be finally necessary for submission - not used here
@@ -41,7 +36,10 @@ class Runner {
 //			Algorithm algorithm = new RandomLocalSearch(100);
 //			 Algorithm algorithm = new ExhaustiveSearch();
 //			Algorithm algorithm = new LambdaAlgorithm(numOfSolutions);
-			Algorithm algorithm = new NTGA(numOfSolutions);
+			NTGA ntga = new NTGA(numOfSolutions);
+			// time the phases of NTGA - the metrics can be watched with JMX while it is running
+			ntga.setMetrics(NTGAMetrics.register(problem.name));
+			Algorithm algorithm = ntga;
 
 			// use it to to solve the problem and return the non-dominated set
 			List<Solution> nds = algorithm.solve(problem);
@@ -70,6 +68,9 @@ class Runner {
 
 			Util.printSolutions(nds, true);
 
+			if (ntga.getMetrics() != null)
+				System.out.println(ntga.getMetrics());
+
 			File dir = new File("results");
 			if (!dir.exists()) dir.mkdirs();
 			Util.writeSolutions("results", Competition.TEAM_NAME, problem, nds);
@@ -1,10 +1,15 @@
+import io.BinaryProblemFormat;
+import io.ProblemReader;
+import io.SolutionWriter;
 import model.Solution;
 import model.TravelingThiefProblem;
 
 import java.io.*;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -23,37 +28,8 @@ public abstract class Util {
                     "Your algorithm found %s solutions.", numberOfSolutions, solutions.size()));
         }
 
-        BufferedWriter varBw = Files.newBufferedWriter(Paths.get(outputFolder,
-                String.format("%s_%s.x", teamName, problem.name)));
-
-        BufferedWriter objBw = Files.newBufferedWriter(Paths.get(outputFolder,
-                String.format("%s_%s.f", teamName, problem.name)));
-
-
-        for (Solution solution : solutions) {
-
-            // add one to the index of each city to match the index of the input format
-            List<Integer> modTour = new ArrayList<>(solution.pi);
-            for (int i = 0; i < modTour.size(); i++) {
-                modTour.set(i, modTour.get(i) + 1);
-            }
-
-            // write the variables
-            varBw.write(String.join(" ",
-                    modTour.stream().map(Object::toString).collect(Collectors.toList())) + "\n");
-            varBw.write(String.join(" ",
-                    solution.z.stream().map(b -> b ? "1" : "0").collect(Collectors.toList())) + "\n");
-            varBw.write("\n");
-
-            // write into the objective file
-            objBw.write(String.format("%.16f %.16f", solution.time, solution.profit) + "\n");
-
-        }
-
-        varBw.close();
-        objBw.close();
-
-
+        SolutionWriter.write(Paths.get(outputFolder, String.format("%s_%s.x", teamName, problem.name)),
+                Paths.get(outputFolder, String.format("%s_%s.f", teamName, problem.name)), solutions);
 
     }
 
@@ -80,67 +56,52 @@ public abstract class Util {
     }
 
 
-	public static TravelingThiefProblem readProblem(InputStream is) throws IOException {
-
-        TravelingThiefProblem problem = new TravelingThiefProblem();
-
-        Reader reader = new InputStreamReader(is);
-        BufferedReader br = new BufferedReader(reader);
-
-        String line = br.readLine();
-        while(line != null){
-
-            if (line.contains("PROBLEM NAME")) {
-            } else if (line.contains("KNAPSACK DATA TYPE")) {
-            } else if (line.contains("DIMENSION")) {
-                problem.numOfCities = Integer.valueOf(line.split(":")[1].trim());
-                problem.coordinates = new double[problem.numOfCities][2];
-            } else if (line.contains("NUMBER OF ITEMS")) {
-                problem.numOfItems = Integer.valueOf(line.split(":")[1].trim());
-                problem.cityOfItem = new int[problem.numOfItems];
-                problem.weight = new double[problem.numOfItems];
-                problem.profit = new double[problem.numOfItems];
-            } else if (line.contains("RENTING RATIO")) {
-                problem.R = Double.valueOf(line.split(":")[1].trim());
-            } else if (line.contains("CAPACITY OF KNAPSACK")) {
-                problem.maxWeight = Integer.valueOf(line.split(":")[1].trim());
-            } else if (line.contains("MIN SPEED")) {
-                problem.minSpeed = Double.valueOf(line.split(":")[1].trim());
-            } else if (line.contains("MAX SPEED")) {
-                problem.maxSpeed = Double.valueOf(line.split(":")[1].trim());
-            } else if (line.contains("EDGE_WEIGHT_TYPE")) {
-                String edgeWeightType = line.split(":")[1].trim();
-                if (!edgeWeightType.equals("CEIL_2D")) {
-                    throw new RuntimeException("Only edge weight type of CEIL_2D supported.");
-                }
-            } else if (line.contains("NODE_COORD_SECTION")) {
-                for (int i = 0; i < problem.numOfCities; i++) {
-                    line = br.readLine();
-                    String[] a = line.split("\\s+");
-                    problem.coordinates[i][0] = Double.valueOf(a[1].trim());
-                    problem.coordinates[i][1] = Double.valueOf(a[2].trim());
-                }
-
-            } else if (line.contains("ITEMS SECTION")) {
-
-                for (int i = 0; i < problem.numOfItems; i++) {
-                    line = br.readLine();
-                    String[] a = line.split("\\s+");
-                    problem.profit[i] = Double.valueOf(a[1].trim());
-                    problem.weight[i] = Double.valueOf(a[2].trim());
-                    problem.cityOfItem[i] = Integer.valueOf(a[3].trim()) - 1;
-                }
+    /**
+     * Read an instance from the resources of the class loader. If the binary file of the instance
+     * (see BinaryProblemFormat) exists and is newer than the text file, the binary file is read.
+     */
+    public static TravelingThiefProblem readProblem(ClassLoader loader, String instance) throws IOException {
 
-            }
-            line = br.readLine();
-        }
+        URL text = loader.getResource(String.format("resources/%s.txt", instance));
+        URL binary = loader.getResource(String.format("resources/%s%s", instance, BinaryProblemFormat.EXTENSION));
 
-        br.close();
+        TravelingThiefProblem problem;
+        if (binary != null && (text == null || lastModified(binary) > lastModified(text))) {
+            problem = isFile(binary) ? BinaryProblemFormat.read(Paths.get(toURI(binary)))
+                    : BinaryProblemFormat.read(binary.openStream());
+        } else if (text != null) {
+            problem = isFile(text) ? ProblemReader.read(Paths.get(toURI(text))) : readProblem(text.openStream());
+        } else {
+            throw new RuntimeException(String.format("Instance %s not found.", instance));
+        }
 
-        problem.initialize();
+        problem.name = instance;
         return problem;
-	}
+    }
+
+    private static boolean isFile(URL url) {
+        return "file".equals(url.getProtocol());
+    }
 
+    private static long lastModified(URL url) throws IOException {
+        if (isFile(url)) return Files.getLastModifiedTime(Paths.get(toURI(url))).toMillis();
+        return url.openConnection().getLastModified();
+    }
+
+    private static URI toURI(URL url) {
+        try {
+            return url.toURI();
+        } catch (URISyntaxException e) {
+            throw new RuntimeException("Invalid resource location " + url, e);
+        }
+    }
+
+    /**
+     * Read a problem from a stream in the text format - see ProblemReader.
+     */
+    public static TravelingThiefProblem readProblem(InputStream is) throws IOException {
+        return ProblemReader.read(is);
+    }
 
 
 
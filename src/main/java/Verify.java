@@ -1,138 +1,214 @@
+import io.BinaryProblemFormat;
+import io.SubmissionReader;
 import model.Solution;
 import model.TravelingThiefProblem;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class Verify {
 	/**
 	 * To verify your solution, you have to do the following:
 	 *
-	 * 1) Create a subfolder in "results" which is equal to your team name 2) Modify
-	 * the string TEAM accordingly 3) Run the script. It will check if your
+	 * 1) Create a subfolder in "submissions" which is equal to your team name 2)
+	 * Modify the string TEAM accordingly 3) Run the script. It will check if your
 	 * submission is correct.
 	 *
+	 * All instances of the competition are verified in parallel and the solutions
+	 * of an instance are evaluated in parallel as well. All errors are reported
+	 * before the program exits. Instances which are not in the resources are
+	 * skipped.
+	 *
 	 */
 
 	static final ClassLoader LOADER = Runner.class.getClassLoader();
 
-	public static void main(String[] args) throws IOException {
+	// ! maximal difference between the reported and the evaluated objective values
+	static final double PRECISION = 1e-4;
+
+	public static void main(String[] args) throws InterruptedException {
 
 		final String TEAM = "Team-Lambda";
 
-		List<String> instances = Arrays.asList("a280_n279");
-		// , "a280_n1395", "a280_n2790", "fnl4461_n4460", "fnl4461_n22300",
-		// "fnl4461_n44600", "pla33810_n33809", "pla33810_n169045", "pla33810_n338090"
+		// instances which are not shipped are reported as skipped and not as errors
+		List<String> instances = new ArrayList<>();
+		for (String instance : Competition.INSTANCES) {
+			if (LOADER.getResource("resources/" + instance + ".txt") == null
+					&& LOADER.getResource("resources/" + instance + BinaryProblemFormat.EXTENSION) == null) {
+				System.out.println(String.format("%s: skipped - instance not found.", instance));
+				continue;
+			}
+			instances.add(instance);
+		}
+		if (instances.isEmpty()) {
+			System.out.println("No instance to verify.");
+			System.exit(1);
+		}
+
+		ExecutorService executor = Executors
+				.newFixedThreadPool(Math.min(instances.size(), Runtime.getRuntime().availableProcessors()));
+		List<Future<Report>> futures = new ArrayList<>();
 		for (String instance : instances) {
+			futures.add(executor.submit(() -> verify(TEAM, instance)));
+		}
 
-			// readProblem the problem from the file
-			String fname = String.format("resources/%s.txt", instance.replace("_", "-"));
-			InputStream is = LOADER.getResourceAsStream(fname);
+		boolean isAccepted = true;
+		try {
+			for (Future<Report> future : futures) {
+				Report report = future.get();
+				report.print();
+				isAccepted &= report.errors.isEmpty();
+			}
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Verification failed.", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
 
-			TravelingThiefProblem problem = Util.readProblem(is);
-			problem.name = instance;
+		if (!isAccepted) {
+			System.out.println("Submission can not be accepted.");
+			System.exit(1);
+		}
+
+	}
+
+	/**
+	 * Verify the submission of a single instance.
+	 */
+	static Report verify(String team, String instance) {
 
-			// Comment this out if you have replaced it in your output files
-			instance = instance.replace("_", "-");
+		Report report = new Report(instance);
 
-			Path pathToX = Paths.get("submissions", TEAM, String.format("%s_%s.x", TEAM, instance));
-			Path pathToF = Paths.get("submissions", TEAM, String.format("%s_%s.f", TEAM, instance));
+		// readProblem the problem from the file
+		TravelingThiefProblem problem;
+		try {
+			problem = Util.readProblem(LOADER, instance);
+		} catch (Exception e) {
+			report.errors.add(String.format("Problem could not be loaded: %s", e.getMessage()));
+			return report;
+		}
 
-			String[] objectives = new String(Files.readAllBytes(pathToF)).split("\n");
-			int counter = 0;
+		Path pathToX = Paths.get("submissions", team, String.format("%s_%s.x", team, instance));
+		Path pathToF = Paths.get("submissions", team, String.format("%s_%s.f", team, instance));
+		if (!Files.exists(pathToX) || !Files.exists(pathToF)) {
+			report.errors.add(String.format("Files %s and %s are necessary.", pathToX, pathToF));
+			return report;
+		}
 
-			try (BufferedReader br = new BufferedReader(new FileReader(pathToX.toFile()))) {
+		// read all solutions and check tour and packing plan
+		List<Solution> solutions = new ArrayList<>();
+		List<Integer> indices = new ArrayList<>();
+		boolean[] isVisited = new boolean[problem.numOfCities];
+		try {
+			SubmissionReader reader = new SubmissionReader(pathToX, pathToF);
+			for (Solution s; (s = reader.next()) != null; report.numOfSolutions++) {
+
+				String error = check(problem, s, isVisited);
+				if (error != null) {
+					report.errors.add(String.format("Solution %s: %s", report.numOfSolutions, error));
+				} else {
+					solutions.add(s);
+					indices.add(report.numOfSolutions);
+				}
 
-				while (true) {
+			}
+		} catch (Exception e) {
+			report.errors.add(String.format("Solution %s: Submission files could not be read: %s",
+					report.numOfSolutions, e.getMessage()));
+			return report;
+		}
 
-					String line = br.readLine();
+		// evaluate the valid solutions in parallel and compare the objective values
+		List<Solution> evaluated = problem.evaluateAll(solutions, false);
+		for (int i = 0; i < solutions.size(); i++) {
+			Solution reported = solutions.get(i);
+			Solution solution = evaluated.get(i);
+			if (Math.abs(reported.time - solution.time) > PRECISION
+					|| Math.abs(reported.profit - solution.profit) > PRECISION) {
+				report.errors.add(String.format(
+						"Solution %s: Reported time is %s. Evaluated %s. Reported profit is %s. Evaluated %s.",
+						indices.get(i), reported.time, solution.time, reported.profit, solution.profit));
+			}
+		}
 
-					if (line == null)
-						break;
+		report.maxNumOfSolutions = Competition.numberOfSolutions(problem);
+		return report;
+	}
 
-					if (line.equals(""))
-						continue;
+	/**
+	 * @return the error of the solution or null if tour and packing plan are valid
+	 */
+	private static String check(TravelingThiefProblem problem, Solution s, boolean[] isVisited) {
 
-					List<Integer> pi = Arrays.asList(line.split("\\s+|,")).stream().map(String::trim)
-							.mapToInt(Integer::parseInt).boxed().collect(Collectors.toList());
+		if (s.tour.length != problem.numOfCities)
+			return String.format("Wrong tour length %s != %s", s.tour.length, problem.numOfCities);
 
-					if (pi.get(0) == 1) {
-						pi = pi.stream().map(x -> x - 1).collect(Collectors.toList());
-					}
+		Arrays.fill(isVisited, false);
+		for (int c : s.tour) {
+			if (c < 0 || c >= problem.numOfCities)
+				return String.format("City %s does not exist.", c + 1);
+			isVisited[c] = true;
+		}
+		for (boolean b : isVisited) {
+			if (!b)
+				return "Not all cities are visited.";
+		}
 
-					if (pi.size() != problem.numOfCities) {
-						System.out.println("ERROR");
-						System.out.println(String.format("Solution %s", counter));
-						System.out.println(String.format("Wrong tour length %s != %s", pi.size(), problem.numOfCities));
-						System.out.println("Submission can not be accepted.");
-						System.exit(1);
-					}
+		if (s.tour[0] != 0)
+			return "Tour does not start at city 1.";
 
-					ArrayList<Boolean> list = new ArrayList<>(problem.numOfCities);
-					list.addAll(Collections.nCopies(problem.numOfCities, Boolean.FALSE));
-					for (int c : pi) {
-						list.set(c, true);
-					}
+		if (s.numOfItems != problem.numOfItems)
+			return String.format("Wrong packing plan length %s != %s", s.numOfItems, problem.numOfItems);
 
-					if (list.contains(false)) {
-						System.out.println("ERROR");
-						System.out.println(String.format("Solution %s", counter));
-						System.out.println("Not all cities are visited.");
-						System.out.println("Submission can not be accepted.");
-						System.exit(1);
-					}
+		if (Double.isNaN(s.time))
+			return "Objective values are missing.";
 
-					line = br.readLine();
+		return null;
+	}
 
-					List<Boolean> z = Arrays.asList(line.split("\\s+|,")).stream().map(String::trim)
-							.map(b -> b.equals("1") ? true : false).collect(Collectors.toList());
+	/**
+	 * Result of the verification of one instance.
+	 */
+	static class Report {
 
-					Solution solution = problem.evaluate(pi, z);
+		final String instance;
 
-					String[] vals = objectives[counter].split("\\s+");
-					double time = Double.valueOf(vals[0]);
-					double profit = Double.valueOf(vals[1]);
+		final List<String> errors = new ArrayList<>();
 
-					double precision = 1e-4;
-					if (Math.abs(time - solution.time) > precision || Math.abs(profit - solution.profit) > precision) {
-						System.out.println("ERROR");
-						System.out.println(String.format("Solution %s", counter));
-						System.out.println(String.format("Reported time is %s. Evaluated %s.", time, solution.time));
-						System.out.println(
-								String.format("Reported profit is %s. Evaluated %s.", profit, solution.profit));
-						System.out.println("Submissions file do not match!");
-						System.exit(1);
-					}
+		int numOfSolutions = 0;
 
-					br.readLine();
-					counter++;
+		int maxNumOfSolutions = Integer.MAX_VALUE;
 
-				}
+		Report(String instance) {
+			this.instance = instance;
+		}
 
+		void print() {
+			if (!errors.isEmpty()) {
+				System.out.println(String.format("%s: ERROR", instance));
+				for (String error : errors)
+					System.out.println("  " + error);
+				return;
 			}
 
-			int numberOfSolutions = Competition.numberOfSolutions(problem);
-			if (counter > numberOfSolutions) {
+			if (numOfSolutions > maxNumOfSolutions) {
 				System.out.println(
 						String.format("WARNING: Finally the competition allows only %s solutions to be submitted. "
-								+ "Your algorithm found %s solutions.", numberOfSolutions, counter));
+								+ "Your algorithm found %s solutions.", maxNumOfSolutions, numOfSolutions));
 			}
 
 			System.out.println(
-					String.format("%s: Submission is correct (%s / %s).", instance, counter, numberOfSolutions));
-			// System.out.println();
-
+					String.format("%s: Submission is correct (%s / %s).", instance, numOfSolutions, maxNumOfSolutions));
 		}
 
 	}
+
 }
@@ -14,4 +14,12 @@ public interface Algorithm {
      */
     List<Solution> solve(TravelingThiefProblem problem);
 
+    /**
+     * @return number of solutions evaluated by the last call of solve - including incremental
+     * evaluations and the ones found in a cache - or -1 if the algorithm does not count them
+     */
+    default long getNumOfEvaluations() {
+        return -1;
+    }
+
 }
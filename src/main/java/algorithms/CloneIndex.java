@@ -0,0 +1,43 @@
+package algorithms;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.Solution;
+
+/**
+ * Hash index of the genotypes of a population to find clones in expected constant time. The
+ * solutions are grouped by their genotype hash and only solutions with the same hash are compared
+ * in the design space.
+ */
+class CloneIndex {
+
+    // solutions grouped by their genotype hash
+    private final Map<Long, List<Solution>> buckets = new HashMap<>();
+
+    CloneIndex(List<Solution> population) {
+        for (Solution s : population)
+            add(s);
+    }
+
+    void add(Solution s) {
+        buckets.computeIfAbsent(s.genotypeHash, hash -> new ArrayList<>(1)).add(s);
+    }
+
+    /**
+     * @return true if a solution with the same tour and packing plan is in the index
+     */
+    boolean contains(Solution individual) {
+        List<Solution> bucket = buckets.get(individual.genotypeHash);
+        if (bucket == null)
+            return false;
+        for (Solution other : bucket) {
+            if (individual.equalsInDesignSpace(other))  // compare the genotype between individual and other
+                return true;
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,83 @@
+package algorithms;
+
+import java.util.Random;
+
+import model.PackingPlan;
+
+/**
+ * Crossover operators working on primitive tours and bitset packing plans. Both operators run in
+ * linear time: the order crossover marks the cities of the reserved part of the tour in a bitmap
+ * instead of searching them in a list. The bitmap is a scratch buffer which is reused by each
+ * thread.
+ */
+public final class Crossover {
+
+    // membership bitmap of the cities per thread - all bits are cleared after each use
+    private static final ThreadLocal<long[]> MEMBERSHIP = ThreadLocal.withInitial(() -> new long[0]);
+
+    private Crossover() {
+    }
+
+    /**
+     * OX order crossover - the child keeps the slice [start, end) of the first parent at the same
+     * positions and the remaining cities are filled in the order they appear in the second parent.
+     * @param child array of the same length as the parents where the result is written to
+     */
+    public static void orderCrossover(int[] parent1, int[] parent2, int start, int end, int[] child) {
+        int size = parent1.length;
+
+        long[] member = MEMBERSHIP.get();
+        if (member.length < PackingPlan.words(size)) {
+            member = new long[PackingPlan.words(size)];
+            MEMBERSHIP.set(member);
+        }
+
+        // mark the cities of the slice and copy it into the child
+        for (int i = start; i < end; ++i) {
+            int city = parent1[i];
+            member[city >>> 6] |= 1L << city;
+            child[i] = city;
+        }
+
+        // add the cities of the second parent which are not in the slice around it
+        int position = 0;
+        for (int i = 0; i < size; ++i) {
+            int city = parent2[i];
+            if ((member[city >>> 6] & (1L << city)) == 0) {
+                if (position == start)
+                    position = end;
+                child[position++] = city;
+            }
+        }
+
+        // clear the bitmap for the next use
+        for (int i = start; i < end; ++i) {
+            int city = parent1[i];
+            member[city >>> 6] &= ~(1L << city);
+        }
+    }
+
+    /**
+     * uniform crossover - each item is exchanged between the parents with the given probability
+     * @param percentRate the probability of exchanging an item in hundred percent
+     * @param child1 packing plan based on the first parent
+     * @param child2 packing plan based on the second parent
+     */
+    public static void uniformCrossover(long[] z1, long[] z2, int numOfItems, int percentRate, Random rand,
+                                        long[] child1, long[] child2) {
+        long mask = 0;
+        for (int i = 0; i < numOfItems; ++i) {
+            if (rand.nextInt(100) < percentRate)
+                mask |= 1L << i;
+
+            // apply the exchange mask word by word
+            if ((i & 63) == 63 || i == numOfItems - 1) {
+                int word = i >>> 6;
+                child1[word] = (z1[word] & ~mask) | (z2[word] & mask);
+                child2[word] = (z2[word] & ~mask) | (z1[word] & mask);
+                mask = 0;
+            }
+        }
+    }
+
+}
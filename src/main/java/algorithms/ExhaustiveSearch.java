@@ -1,148 +1,297 @@
 package algorithms;
 
-import model.NonDominatedSet;
+import model.ConcurrentNonDominatedSet;
+import model.DeltaEvaluator;
+import model.EvaluationResult;
+import model.PackingPlan;
 import model.Solution;
 import model.TravelingThiefProblem;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * This is an exhaustive search over all possible solutions. Please only use
  * this for very small problems.
  *
- * Also, note that this implementation is not very memory-efficient, because all
- * permutations for tours are stored in memory.
+ * The tours are split by the cities at their first positions and each prefix is
+ * searched by its own fork/join task. Within a task the remaining positions are
+ * enumerated in a single array by Heap's algorithm and the packing plans of each
+ * tour are enumerated depth-first, one item flip at a time (evaluated with
+ * DeltaEvaluator). The memory does not depend on the number of tours or
+ * packing plans.
+ *
+ * Branches are skipped if they can not contain a non-dominated solution:
+ * packing plans exceeding the capacity, and prefixes, tours or packing plans
+ * where a solution in the archive is better than the lower bound of the time
+ * and the upper bound of the profit of all solutions in the branch. The result is the
+ * same as without pruning. The number of pruned branches of the last search is
+ * available through the getters.
  */
 public class ExhaustiveSearch implements Algorithm {
 
-	public List<Solution> solve(TravelingThiefProblem problem) {
+	// ! number of positions after city 0 which are fixed for a task
+	private static final int PREFIX_LENGTH = 2;
 
-		// start form an empty set of non-dominated solutions
-		NonDominatedSet nds = new NonDominatedSet();
+	// ! relative slack of the bounds - the bounds are summed in a different order than the objectives. Only
+	// ! the largest profit of all packing plans, which prunes prefixes and tours, is compared exactly: it is
+	// ! reached by solutions in the archive, so a slack would keep every tour. It only prunes solutions which
+	// ! are slower than an archived one with the same profit up to rounding.
+	private static final double TOLERANCE = 1e-9;
 
-		// index vector to permute
-		List<Integer> index = getIndex(1, problem.numOfCities);
+	// ! pool which runs the tasks of the prefixes
+	private final ForkJoinPool pool;
 
-		// iterate over all possible tours
-		for (List<Integer> pi : permute(index)) {
+	// ! branches skipped by the bounds during the last search
+	private final LongAdder prunedPrefixes = new LongAdder();
+	private final LongAdder prunedTours = new LongAdder();
+	private final LongAdder prunedPackingPlans = new LongAdder();
 
-			// make tour starting at city 0
-			pi.add(0, 0);
+	public ExhaustiveSearch() {
+		this(ForkJoinPool.commonPool());
+	}
 
-			// for all possible item combinations
-			for (int i = 0; i <= problem.numOfItems; i++) {
+	/**
+	 * @param pool pool which runs the search, e.g. to limit the number of threads
+	 */
+	public ExhaustiveSearch(ForkJoinPool pool) {
+		this.pool = pool;
+	}
 
-				// iterate over all combinations for items
-				Combination combination = new Combination(problem.numOfItems, i);
-				while (combination.hasNext()) {
+	/**
+	 * @return number of prefixes whose tours were all skipped in the last search
+	 */
+	public long getPrunedPrefixes() {
+		return prunedPrefixes.sum();
+	}
 
-					// create the corresponding packing plan from the combination
-					List<Boolean> z = new ArrayList<>(problem.numOfItems);
-					for (int j = 0; j < problem.numOfItems; j++)
-						z.add(false);
-					for (int j : combination.next())
-						z.set(j, true);
+	/**
+	 * @return number of tours whose packing plans were all skipped in the last search
+	 */
+	public long getPrunedTours() {
+		return prunedTours.sum();
+	}
 
-					// evaluate the solution and add to non-dominated set
-					Solution s = problem.evaluate(pi, z, true);
-					nds.add(s);
+	/**
+	 * @return number of items in the last search after which the packing plans were skipped
+	 */
+	public long getPrunedPackingPlans() {
+		return prunedPackingPlans.sum();
+	}
 
-					System.out.println(nds.entries.size());
-//					if (nds.entries.size() == 100) {
-//						break;
-//					}
-				}
+	public List<Solution> solve(TravelingThiefProblem problem) {
+
+		// start form an empty set of non-dominated solutions
+		ConcurrentNonDominatedSet nds = new ConcurrentNonDominatedSet();
+		prunedPrefixes.reset();
+		prunedTours.reset();
+		prunedPackingPlans.reset();
+
+		// profit of the items after each index - bound for the profit of a branch
+		double[] suffixProfit = new double[problem.numOfItems + 1];
+		for (int j = problem.numOfItems - 1; j >= 0; j--)
+			suffixProfit[j] = suffixProfit[j + 1] + problem.profit[j];
+
+		// no solution can have a larger profit
+		double maxProfit = maxProfit(problem, suffixProfit, 0, 0, 0, 0);
+
+		// one tour for each prefix - the remaining cities follow in increasing order
+		List<int[]> prefixes = new ArrayList<>();
+		int length = Math.min(PREFIX_LENGTH, problem.numOfCities - 1);
+		addPrefixes(new int[problem.numOfCities], 1, length, new boolean[problem.numOfCities], prefixes);
+
+		pool.invoke(new SearchTask(problem, nds, suffixProfit, maxProfit, length, prefixes, 0, prefixes.size()));
+
+		return new ArrayList<>(nds.snapshot());
+	}
+
+	/**
+	 * create a tour for each possible assignment of the positions 1 ... length
+	 */
+	private void addPrefixes(int[] pi, int position, int length, boolean[] isUsed, List<int[]> prefixes) {
+		if (position > length) {
+			int[] tour = pi.clone();
+			for (int city = 1, i = position; city < pi.length; city++) {
+				if (!isUsed[city])
+					tour[i++] = city;
 			}
-//			if (nds.entries.size() == 100) {
-//				break;
-//			}
+			prefixes.add(tour);
+			return;
+		}
+		for (int city = 1; city < pi.length; city++) {
+			if (isUsed[city])
+				continue;
+			isUsed[city] = true;
+			pi[position] = city;
+			addPrefixes(pi, position + 1, length, isUsed, prefixes);
+			isUsed[city] = false;
 		}
+	}
 
-		return nds.entries;
+	/**
+	 * @return the largest profit of a packing plan which does not exceed the
+	 *         capacity
+	 */
+	private double maxProfit(TravelingThiefProblem problem, double[] suffixProfit, int item, double weight,
+			double profit, double best) {
+		if (item == problem.numOfItems || profit + suffixProfit[item] <= best)
+			return Math.max(best, profit);
+		if (weight + problem.weight[item] <= problem.maxWeight * (1 + TOLERANCE))
+			best = maxProfit(problem, suffixProfit, item + 1, weight + problem.weight[item],
+					profit + problem.profit[item], best);
+		return maxProfit(problem, suffixProfit, item + 1, weight, profit, best);
 	}
 
-	private <T> Collection<List<T>> permute(Collection<T> input) {
-		Collection<List<T>> output = new ArrayList<>();
-		if (input.isEmpty()) {
-			output.add(new ArrayList<>());
-			return output;
+	/**
+	 * Searches a range of prefixes by splitting it until single prefixes are left.
+	 */
+	private class SearchTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final TravelingThiefProblem problem;
+		private final ConcurrentNonDominatedSet nds;
+		private final double[] suffixProfit;
+		private final double maxProfit;
+		private final int length;
+		private final List<int[]> prefixes;
+		private final int from;
+		private final int to;
+
+		// ! state of the search of a single prefix
+		private DeltaEvaluator evaluator;
+		private EvaluationResult result;
+		private double minTime;
+
+		SearchTask(TravelingThiefProblem problem, ConcurrentNonDominatedSet nds, double[] suffixProfit,
+				double maxProfit, int length, List<int[]> prefixes, int from, int to) {
+			this.problem = problem;
+			this.nds = nds;
+			this.suffixProfit = suffixProfit;
+			this.maxProfit = maxProfit;
+			this.length = length;
+			this.prefixes = prefixes;
+			this.from = from;
+			this.to = to;
 		}
 
-		List<T> list = new ArrayList<>(input);
-		T head = list.get(0);
-		List<T> rest = list.subList(1, list.size());
-		for (List<T> permutations : permute(rest)) {
-			List<List<T>> subLists = new ArrayList<>();
-			for (int i = 0; i <= permutations.size(); i++) {
-				List<T> subList = new ArrayList<>();
-				subList.addAll(permutations);
-				subList.add(i, head);
-				subLists.add(subList);
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				search(prefixes.get(from));
+			} else if (to - from > 1) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new SearchTask(problem, nds, suffixProfit, maxProfit, length, prefixes, from, middle),
+						new SearchTask(problem, nds, suffixProfit, maxProfit, length, prefixes, middle, to));
 			}
-			output.addAll(subLists);
 		}
-		return output;
-	}
 
-	private class Combination {
-		private int n, r;
-		private int[] index;
-		private boolean hasNext = true;
-		protected List<Integer> l;
-
-		public Combination(int n, int r) {
-			this.n = n;
-			this.r = r;
-			index = new int[r];
-			for (int i = 0; i < r; i++)
-				index[i] = i;
-		}
+		/**
+		 * search all tours which start with the prefix of pi
+		 */
+		private void search(int[] pi) {
 
-		public boolean hasNext() {
-			return hasNext;
-		}
+			// the thief can not be faster than with an empty knapsack on the prefix and, from each city of
+			// the rest of the tour, on the shortest edge to a city which may follow
+			double prefixTime = 0;
+			for (int i = 0; i < length; i++)
+				prefixTime += problem.distance(pi[i], pi[i + 1]) / problem.maxSpeed;
+			for (int i = length; i < pi.length; i++) {
+				double nearest = problem.distance(pi[i], pi[0]);
+				for (int j = length + 1; j < pi.length; j++) {
+					if (j != i)
+						nearest = Math.min(nearest, problem.distance(pi[i], pi[j]));
+				}
+				prefixTime += nearest / problem.maxSpeed;
+			}
+			if (nds.isDominated(prefixTime * (1 - TOLERANCE), maxProfit)) {
+				prunedPrefixes.increment();
+				return;
+			}
 
-		private void moveIndex() {
-			int i = rightmostIndexBelowMax();
-			if (i >= 0) {
-				index[i] = index[i] + 1;
-				for (int j = i + 1; j < r; j++)
-					index[j] = index[j - 1] + 1;
-			} else
-				hasNext = false;
-		}
+			evaluator = new DeltaEvaluator(problem);
+			result = new EvaluationResult();
+			long[] empty = PackingPlan.create(problem.numOfItems);
+
+			// state of Heap's algorithm for the positions after the prefix
+			int first = length + 1;
+			int[] c = new int[pi.length - first];
 
-		public List<Integer> next() {
-			if (!hasNext)
-				return null;
-			List<Integer> result = new ArrayList<>(r);
-			for (int i = 0; i < r; i++) {
-				if (l == null)
-					result.add(index[i]);
+			// iterate over all possible tours
+			int i = 1;
+			do {
+
+				// the empty packing plan is the fastest one for this tour
+				evaluator.reset(pi, empty);
+				evaluator.evaluate(result);
+				add();
+				minTime = result.time * (1 - TOLERANCE);
+				if (!nds.isDominated(minTime, maxProfit))
+					pack(0, 0, 0);
 				else
-					result.add(l.get(index[i]));
+					prunedTours.increment();
+
+				// next tour of Heap's algorithm
+				while (i < c.length && c[i] >= i)
+					c[i++] = 0;
+				if (i >= c.length)
+					break;
+				swap(pi, i % 2 == 0 ? first : first + c[i], first + i);
+				c[i]++;
+				i = 1;
+
+			} while (true);
+		}
+
+		/**
+		 * Enumerate all packing plans which add items from the given one on to the
+		 * current packing plan of the evaluator.
+		 */
+		private void pack(int item, double weight, double profit) {
+			for (int j = item; j < problem.numOfItems; j++) {
+
+				// all packing plans with this item exceed the capacity
+				if (weight + problem.weight[j] > problem.maxWeight * (1 + TOLERANCE))
+					continue;
+
+				// all packing plans of this and the following items are dominated
+				if (nds.isDominated(minTime, (profit + suffixProfit[j]) * (1 + TOLERANCE))) {
+					prunedPackingPlans.increment();
+					break;
+				}
+
+				evaluator.flip(j);
+				evaluator.evaluate(result);
+				add();
+				pack(j + 1, weight + problem.weight[j], profit + problem.profit[j]);
+				evaluator.flip(j);
 			}
-			moveIndex();
-			return result;
 		}
 
-		// return int,the index which can be bumped up.
-		private int rightmostIndexBelowMax() {
-			for (int i = r - 1; i >= 0; i--)
-				if (index[i] < n - r + i)
-					return i;
-			return -1;
+		/**
+		 * add the current genotype of the evaluator to the non-dominated set - a
+		 * solution is only created if it is not dominated
+		 */
+		private void add() {
+			if (nds.isDominated(result.time, result.profit))
+				return;
+			Solution s = new Solution(evaluator.getTour().clone(), evaluator.getPackingPlan().clone(),
+					problem.numOfItems);
+			s.time = result.time;
+			s.profit = result.profit;
+			s.singleObjective = result.singleObjective;
+			nds.add(s);
 		}
+
 	}
 
-	private List<Integer> getIndex(int low, int high) {
-		List<Integer> l = new ArrayList<>();
-		for (int j = low; j < high; j++) {
-			l.add(j);
-		}
-		return l;
+	private static void swap(int[] a, int i, int j) {
+		int tmp = a[i];
+		a[i] = a[j];
+		a[j] = tmp;
 	}
 
 }
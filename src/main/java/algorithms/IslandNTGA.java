@@ -0,0 +1,266 @@
+package algorithms;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.ConcurrentNonDominatedSet;
+import model.NonDominatedSet;
+import model.Solution;
+import model.TravelingThiefProblem;
+
+
+/**
+ * Island model of NTGA. Several independent NTGA populations (islands) are evolved on their own
+ * threads, each one with its own random number generator. Every few epochs an island sends copies
+ * of its best ranked individuals to another island where they replace the worst ranked ones.
+ * All islands share one non-dominated archive, which is the final result.
+ *
+ * The islands wait for each other at every migration, which is then done by all islands in their
+ * order. Until then each island collects its non-dominated individuals on its own, and they are
+ * added to the shared archive in the order of the islands as well. So a run is reproducible: the
+ * same seed gives the same result, independent of how the threads are scheduled and how many
+ * there are - unless a time limit stops the run, which is checked at the migrations.
+ */
+public class IslandNTGA implements Algorithm {
+
+    // how the islands are connected for the migration
+    public enum Topology {
+        // island i sends to island i + 1
+        RING,
+        // each migration goes to a randomly chosen other island
+        RANDOM
+    }
+
+    int populationSize;
+    int numOfIslands;
+    int numOfThreads;  // the islands are evolved by at most this many threads
+    long seed;
+    /**
+     * the hyper-parameters below can by changed logically
+     * epochs of each island, epochs between two migrations and individuals sent per migration
+     * */
+    int epochs = 1000;
+    int migrationInterval = 50;
+    int numOfMigrants = 2;
+    long timeLimit = Long.MAX_VALUE;  // wall-clock milliseconds - the run stops at the first migration exceeding it
+    boolean verbose = true;  // print the progress of the first island
+    Topology topology = Topology.RING;
+    long numOfEvaluations = 0;  // solutions evaluated by all islands in the last run
+
+    // one island per available processor
+    public IslandNTGA(int numOfSolutions) {
+        this(numOfSolutions, Runtime.getRuntime().availableProcessors(), System.nanoTime());
+    }
+
+    /**
+     * @param numOfSolutions population size of each island
+     * @param numOfIslands number of islands which run in parallel
+     * @param seed seed to derive the random number generator of each island
+     */
+    public IslandNTGA(int numOfSolutions, int numOfIslands, long seed) {
+        if (numOfIslands < 1) throw new RuntimeException("At least one island is necessary.");
+        this.populationSize = numOfSolutions;
+        this.numOfIslands = numOfIslands;
+        this.numOfThreads = numOfIslands;
+        this.seed = seed;
+    }
+
+    /**
+     * limit the threads evolving the islands, e.g. if several runs share the processors - the
+     * islands then take turns between the migrations, which does not change the result
+     */
+    public void setNumOfThreads(int numOfThreads) {
+        if (numOfThreads < 1) throw new RuntimeException("At least one thread is necessary.");
+        this.numOfThreads = numOfThreads;
+    }
+
+    public void setEpochs(int epochs) {
+        this.epochs = epochs;
+    }
+
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    public void setMigrationInterval(int migrationInterval) {
+        if (migrationInterval < 1) throw new RuntimeException("The migration interval must be at least one epoch.");
+        this.migrationInterval = migrationInterval;
+    }
+
+    public void setNumOfMigrants(int numOfMigrants) {
+        if (numOfMigrants < 0) throw new RuntimeException("The number of migrants can not be negative.");
+        this.numOfMigrants = numOfMigrants;
+    }
+
+    public void setTopology(Topology topology) {
+        this.topology = topology;
+    }
+
+    @Override
+    public long getNumOfEvaluations() {
+        return numOfEvaluations;
+    }
+
+    @Override
+    public List<Solution> solve(TravelingThiefProblem problem) {
+        long startTime = System.currentTimeMillis();
+        Random rand = new Random(seed);
+
+        // the islands with their own random number generators, populations and individuals found
+        // since the last migration
+        List<NTGA> islands = new ArrayList<>();
+        List<List<Solution>> populations = new ArrayList<>();
+        List<NonDominatedSet> found = new ArrayList<>();
+        for (int i = 0; i < numOfIslands; ++i) {
+            NTGA island = new NTGA(populationSize, rand.nextLong());
+            island.epochs = epochs;
+            islands.add(island);
+            populations.add(null);
+            found.add(null);
+        }
+
+        // the archive shared by all islands
+        ConcurrentNonDominatedSet archive = new ConcurrentNonDominatedSet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(numOfThreads, numOfIslands));
+
+        try {
+            // the islands evolve in parallel until the next migration, which is done by all at once
+            for (int epoch = -1; epoch < epochs; ) {
+                final int from = epoch;
+                final int to = Math.min(Math.max(from, 0) + migrationInterval, epochs);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < numOfIslands; ++i) {
+                    final int islandIndex = i;
+                    found.set(islandIndex, new NonDominatedSet());
+                    futures.add(executor.submit(() -> evolveIsland(problem, islandIndex, islands.get(islandIndex),
+                            populations, found.get(islandIndex), from, to)));
+                }
+                for (Future<?> future : futures)
+                    future.get();
+
+                // archive what the islands found in their order
+                for (NonDominatedSet islandFound : found) {
+                    for (Solution s : islandFound.entries)
+                        archive.add(s);
+                }
+
+                // stop if the time is up
+                if (System.currentTimeMillis() - startTime >= timeLimit)
+                    break;
+
+                if (to < epochs && numOfIslands > 1)
+                    migrate(islands, populations);
+                epoch = to;
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Island model was interrupted.", e);
+        }
+        catch (ExecutionException e) {
+            throw new RuntimeException("Island failed while solving the problem.", e.getCause());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        numOfEvaluations = 0;
+        for (NTGA island : islands)
+            numOfEvaluations += island.numOfEvaluations;
+
+        return new ArrayList<>(archive.snapshot());
+    }
+
+    /**
+     * run the epochs from ... to - 1 of one island - if from is -1 the initial population is created
+     * before the first epoch
+     */
+    private void evolveIsland(TravelingThiefProblem problem, int islandIndex, NTGA island,
+                              List<List<Solution>> populations, NonDominatedSet found, int from, int to) {
+        List<Solution> population = populations.get(islandIndex);
+        if (from < 0) {
+            population = island.initPopulation(problem, populationSize, island.initPackingRate);
+            publish(population, found);
+            from = 0;
+        }
+
+        for (int epoch = from; epoch < to; ++epoch) {
+            population = island.evolve(problem, population);
+            publish(population, found);
+
+            // show epoch number
+            if (verbose && islandIndex == 0 && epochs > 10 && epoch % (epochs / 10) == 0)
+                System.out.println("epoch: " + epoch);
+        }
+
+        populations.set(islandIndex, population);
+    }
+
+    /**
+     * every island sends its best ranked individuals to another island, where they replace the
+     * worst ranked ones - the islands are handled in their order, so the migration is reproducible
+     */
+    private void migrate(List<NTGA> islands, List<List<Solution>> populations) {
+        List<List<Solution>> byRanks = new ArrayList<>();
+        List<List<Solution>> inboxes = new ArrayList<>();
+        for (int i = 0; i < numOfIslands; ++i)
+            inboxes.add(new ArrayList<>());
+
+        for (int islandIndex = 0; islandIndex < numOfIslands; ++islandIndex) {
+            NTGA island = islands.get(islandIndex);
+            List<Solution> population = populations.get(islandIndex);
+            island.nonDominatedSorting(population, false, true);
+            List<Solution> byRank = new ArrayList<>(population);
+            byRank.sort(Comparator.comparingInt(Solution::getRank));
+            byRanks.add(byRank);
+
+            // the target island of this migration
+            int target;
+            if (topology == Topology.RING) {
+                target = (islandIndex + 1) % numOfIslands;
+            }
+            else {
+                target = island.rand.nextInt(numOfIslands - 1);
+                if (target >= islandIndex)
+                    ++target;
+            }
+
+            // send copies, because the rank and index are modified by the receiving island
+            for (int i = 0; i < numOfMigrants && i < byRank.size(); ++i)
+                inboxes.get(target).add(byRank.get(i).copy());
+        }
+
+        // replace the worst individuals by the immigrants
+        for (int islandIndex = 0; islandIndex < numOfIslands; ++islandIndex) {
+            List<Solution> population = populations.get(islandIndex);
+            List<Solution> byRank = byRanks.get(islandIndex);
+            List<Solution> inbox = inboxes.get(islandIndex);
+            for (int replaced = 0; replaced < population.size() && replaced < inbox.size(); ++replaced) {
+                Solution immigrant = inbox.get(replaced);
+                Solution worst = byRank.get(byRank.size() - 1 - replaced);
+                immigrant.index = worst.index;
+                population.set(worst.index, immigrant);
+            }
+        }
+    }
+
+    /**
+     * add the individuals of a population to the ones found by the island since the last migration
+     */
+    private void publish(List<Solution> population, NonDominatedSet found) {
+        for (Solution s : population)
+            found.add(s);
+    }
+
+}
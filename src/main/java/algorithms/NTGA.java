@@ -2,11 +2,15 @@ package algorithms;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
 
+import model.EvaluationCache;
+import model.GenotypeHash;
+import model.PackingPlan;
 import model.Solution;
 import model.TravelingThiefProblem;
 
@@ -24,65 +28,88 @@ public class NTGA implements Algorithm{
     double orderCrossoverRate = 0.01;
     double uniformCrossoverRate = 0.01;
     double mutationRate = 0.03;
+    int evaluationCacheSize = 0;  // 0 for no cache of its own - each offspring is evaluated once, so there are no hits
+    long timeLimit = Long.MAX_VALUE;  // wall-clock milliseconds - the run stops after the epoch exceeding it
+    boolean verbose = true;  // print the progress and write the objectives of each epoch into data/
+    NTGAMetrics metrics = null;  // timers and counters of the phases - null if not measured
+    long numOfEvaluations = 0;  // solutions evaluated since the last start - including the ones found in the cache
+
+    // random number generator used by all operators
+    Random rand;
 
     // Initiate the number of solutions from the problem
     public NTGA(int numOfSolutions) {
         this.populationSize = numOfSolutions;
+        this.rand = new Random();
+    }
+
+    // Initiate the number of solutions and a seed for reproducible runs
+    public NTGA(int numOfSolutions, long seed) {
+        this.populationSize = numOfSolutions;
+        this.rand = new Random(seed);
+    }
+
+    public void setEpochs(int epochs) {
+        this.epochs = epochs;
+    }
+
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    public void setMetrics(NTGAMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public NTGAMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public long getNumOfEvaluations() {
+        return numOfEvaluations;
     }
 
     @Override
     public List<Solution> solve(TravelingThiefProblem problem) {
+        // cache the evaluations if a size is set and the problem has no cache yet - the cache of the caller is kept
+        EvaluationCache previousCache = problem.getEvaluationCache();
+        if (previousCache == null && evaluationCacheSize > 0)
+            problem.setEvaluationCache(new EvaluationCache(evaluationCacheSize));
+        try {
+            return run(problem);
+        }
+        finally {
+            problem.setEvaluationCache(previousCache);
+        }
+    }
+
+    /**
+     * evolve the population for the given epochs or until the time is up
+     * @return the latest generation
+     */
+    private List<Solution> run(TravelingThiefProblem problem) {
+        long startTime = System.currentTimeMillis();
+        numOfEvaluations = 0;
+
         // init population
         List<Solution> population = initPopulation(problem, populationSize, initPackingRate);
 
         // generation limitation
         for (int epoch = 0; epoch < epochs; ++epoch) {
-            // init a new generation and individual index
-            List<Solution> newGeneration = new ArrayList<>();
-            int solutionIndex = 0;
-
-            // non-dominated sorting
-            nonDominatedSorting(population, false, true);
-
-            while (newGeneration.size() < populationSize) {
-                List<Solution> parents = new ArrayList<>();
-                // select two individuals
-                for (int n = 0; n < 2; ++n) {
-                    // tournament selection
-                    Solution parent = tournamentSelect(population, tournamentSize, populationSize);
-                    parents.add(parent);
-                }
-                // order crossover (OX)
-                List<Solution> offspring = orderCrossover(problem, parents, orderCrossoverRate, uniformCrossoverRate);
-                // in-place mutation
-                mutate(offspring, mutationRate, false);
-                // in-place clone prevent - if a child is cloned from original population then mutate it
-                clonePrevent(offspring, population, mutationRate, false);
-
-                // improved here - offspring must not worse than parents to make sure population optimized
-                // if you do not want, just comment the while
-                // limit runtime of improvement method
-                int executeControl = 1000;
-                int executeTime = 0;
-                while (parentsBetterThanOffspring(problem, offspring, parents)){
-                    if (executeTime > executeControl)
-                        break;
-                    // generate offspring
-                    offspring = orderCrossover(problem, parents, orderCrossoverRate, uniformCrossoverRate);
-                    mutate(offspring, mutationRate, false);
-                    clonePrevent(offspring, population, mutationRate, false);
-                    ++executeTime;
-                }
+            // breed the next generation
+            population = evolve(problem, population);
 
-                // evaluate offspring and add into new generation
-                for (Solution child : offspring) {
-                    child = problem.evaluate(child.pi, child.z, true);  // update objectives
-                    child.index = solutionIndex++;
-                    newGeneration.add(child);
-                }
-            }
-            // reset population
-            population = new ArrayList<>(newGeneration);
+            // stop if the time is up
+            if (System.currentTimeMillis() - startTime >= timeLimit)
+                break;
+
+            if (!verbose)
+                continue;
 
             // show epoch number
             if (epochs > 10 && epoch % (epochs / 10) == 0) {
@@ -125,28 +152,147 @@ public class NTGA implements Algorithm{
     }
 
     /**
-     * whether parents better than offspring
+     * breed the next generation by tournament selection, crossover, mutation and clone prevention
+     * @param population the current generation - the ranks of the individuals are updated
+     * @return the evaluated new generation
      */
-    private boolean parentsBetterThanOffspring(TravelingThiefProblem problem, List<Solution> offspring, List<Solution> parents){
-        List<Solution> tempPopulation = new ArrayList<>();
-        int individualIndex = 0;
-        for (Solution parent : parents){
-            List<Integer> tempParentPI = new ArrayList<>(parent.pi);
-            List<Boolean> tempParentZ = new ArrayList<>(parent.z);
-            Solution tempParent = problem.evaluate(tempParentPI, tempParentZ, true);
-            tempParent.index = individualIndex++;
-            tempPopulation.add(tempParent);
+    List<Solution> evolve(TravelingThiefProblem problem, List<Solution> population){
+        // timers and counters of the phases if they are measured
+        NTGAMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+
+        // non-dominated sorting
+        nonDominatedSorting(population, false, true);
+        if (metrics != null) metrics.record(NTGAMetrics.Phase.SORTING, start);
+
+        // hash index of the genotypes to detect clones
+        CloneIndex populationIndex = new CloneIndex(population);
+
+        // parents and offspring of each pair - every pair breeds two children
+        int numOfPairs = (populationSize + 1) / 2;
+        List<List<Solution>> parentsOfPairs = new ArrayList<>(numOfPairs);
+        List<List<Solution>> offspringOfPairs = new ArrayList<>(numOfPairs);
+
+        for (int pair = 0; pair < numOfPairs; ++pair) {
+            if (metrics != null) start = System.nanoTime();
+            List<Solution> parents = new ArrayList<>();
+            // select two individuals
+            for (int n = 0; n < 2; ++n) {
+                // tournament selection
+                Solution parent = tournamentSelect(population, tournamentSize, populationSize);
+                parents.add(parent);
+            }
+            if (metrics != null) start = metrics.record(NTGAMetrics.Phase.SELECTION, start);
+            // order crossover (OX)
+            List<Solution> offspring = orderCrossover(problem, parents, orderCrossoverRate, uniformCrossoverRate);
+            if (metrics != null) start = metrics.record(NTGAMetrics.Phase.CROSSOVER, start);
+            // in-place mutation
+            mutate(offspring, mutationRate, false);
+            if (metrics != null) start = metrics.record(NTGAMetrics.Phase.MUTATION, start);
+            // in-place clone prevent - if a child is cloned from original population then mutate it
+            int iterations = clonePrevent(offspring, populationIndex, mutationRate, false);
+            if (metrics != null) metrics.record(NTGAMetrics.Phase.CLONE_PREVENTION, start, iterations);
+
+            parentsOfPairs.add(parents);
+            offspringOfPairs.add(offspring);
         }
-        for (Solution child : offspring){
-            List<Integer> tempChildPI = new ArrayList<>(child.pi);
-            List<Boolean> tempChildZ = new ArrayList<>(child.z);
-            Solution tempChild = problem.evaluate(tempChildPI, tempChildZ, true);
-            tempChild.index = individualIndex++;
-            tempPopulation.add(tempChild);
+
+        // improved here - offspring must not worse than parents to make sure population optimized
+        // the offspring of all pairs which are not accepted yet are evaluated together in parallel,
+        // then the pairs whose parents are better breed again
+        // limit runtime of improvement method
+        int executeControl = 1000;
+        int[] executeTimes = new int[numOfPairs];
+        List<Integer> pairsToCheck = new ArrayList<>(numOfPairs);
+        for (int pair = 0; pair < numOfPairs; ++pair)
+            pairsToCheck.add(pair);
+
+        while (!pairsToCheck.isEmpty()) {
+            List<Solution> unevaluated = new ArrayList<>(2 * pairsToCheck.size());
+            for (int pair : pairsToCheck)
+                unevaluated.addAll(offspringOfPairs.get(pair));
+            evaluateAll(problem, unevaluated);
+
+            if (metrics != null) start = System.nanoTime();
+            List<Integer> pairsToBreed = new ArrayList<>();
+            for (int pair : pairsToCheck) {
+                boolean isGivenUp = executeTimes[pair] > executeControl;
+                if (isGivenUp || !parentsBetterThanOffspring(offspringOfPairs.get(pair), parentsOfPairs.get(pair))) {
+                    if (metrics != null) metrics.retries(executeTimes[pair], isGivenUp);
+                    continue;
+                }
+                ++executeTimes[pair];
+                pairsToBreed.add(pair);
+            }
+            if (metrics != null) start = metrics.record(NTGAMetrics.Phase.RETRY, start, pairsToBreed.size());
+            if (pairsToBreed.isEmpty())
+                break;
+
+            // generate offspring - measured as the phases of the first offspring
+            for (int pair : pairsToBreed)
+                offspringOfPairs.set(pair, orderCrossover(problem, parentsOfPairs.get(pair), orderCrossoverRate, uniformCrossoverRate));
+            if (metrics != null) start = metrics.record(NTGAMetrics.Phase.CROSSOVER, start);
+            for (int pair : pairsToBreed)
+                mutate(offspringOfPairs.get(pair), mutationRate, false);
+            if (metrics != null) start = metrics.record(NTGAMetrics.Phase.MUTATION, start);
+            int iterations = 0;
+            for (int pair : pairsToBreed)
+                iterations += clonePrevent(offspringOfPairs.get(pair), populationIndex, mutationRate, false);
+            if (metrics != null) metrics.record(NTGAMetrics.Phase.CLONE_PREVENTION, start, iterations);
+
+            pairsToCheck = pairsToBreed;
         }
-        List<Integer> tempRanks = nonDominatedSorting(tempPopulation, false, false);
-        int minOffspringRank = Collections.min(tempRanks.subList(2, 4));
-        int maxParentsRank = Collections.max(tempRanks.subList(0, 2));
+        if (metrics != null) metrics.epoch();
+
+        // the evaluated offspring are the new generation
+        List<Solution> newGeneration = new ArrayList<>(2 * numOfPairs);
+        for (List<Solution> offspring : offspringOfPairs) {
+            for (Solution child : offspring) {
+                child.index = newGeneration.size();
+                newGeneration.add(child);
+            }
+        }
+        return newGeneration;
+    }
+
+    /**
+     * evaluate the solutions in parallel and store the objectives in them
+     * the offspring are evaluated from scratch and not with a DeltaEvaluator started from a parent:
+     * order crossover fills the positions before the slice from the other parent, so the tour changes
+     * within the first 1 % of positions, and uniform crossover and mutation flip items all over the
+     * tour, so the weight and with it the edge times never match the parent again - the delta
+     * evaluation would simulate nearly the whole tour, after a reset which is a full evaluation itself
+     */
+    private void evaluateAll(TravelingThiefProblem problem, List<Solution> solutions){
+        long start = metrics != null ? System.nanoTime() : 0;
+        List<Solution> evaluated = problem.evaluateAll(solutions, false);
+        for (int i = 0; i < evaluated.size(); ++i) {
+            Solution s = solutions.get(i);
+            s.time = evaluated.get(i).time;
+            s.profit = evaluated.get(i).profit;
+            s.singleObjective = evaluated.get(i).singleObjective;
+        }
+        numOfEvaluations += solutions.size();
+        if (metrics != null) metrics.record(NTGAMetrics.Phase.EVALUATION, start, solutions.size());
+    }
+
+    /**
+     * whether parents better than offspring - the parents and the offspring have to be evaluated
+     */
+    private boolean parentsBetterThanOffspring(List<Solution> offspring, List<Solution> parents){
+        double[] time = new double[4];
+        double[] negativeProfit = new double[4];
+        for (int i = 0; i < 2; ++i) {
+            time[i] = parents.get(i).time;
+            negativeProfit[i] = -parents.get(i).profit;
+            time[2 + i] = offspring.get(i).time;
+            negativeProfit[2 + i] = -offspring.get(i).profit;
+        }
+        // the ranks are listed front by front
+        int[] ranks = NonDominatedSorting.rank(time, negativeProfit);
+        Arrays.sort(ranks);
+        int minOffspringRank = Math.min(ranks[2], ranks[3]);
+        int maxParentsRank = Math.max(ranks[0], ranks[1]);
         return maxParentsRank < minOffspringRank;
     }
 
@@ -154,10 +300,13 @@ public class NTGA implements Algorithm{
      * clone prevention - check whether original population contains individual of new population
      * @param newPopulation the population to be checked
      * @param originalPopulation source population
+     * @return number of mutations to make the children different from the population
      */
-    private void clonePrevent(List<Solution> newPopulation, List<Solution> originalPopulation, double mutationRate, boolean showNotice){
+    private int clonePrevent(List<Solution> newPopulation, CloneIndex originalPopulation, double mutationRate, boolean showNotice){
+        int iterations = 0;
         for (Solution child : newPopulation){
             while (isCloned(child, originalPopulation)){
+                ++iterations;
                 if (showNotice)
                     System.out.println("clone prevent execution");
                 // place child into a list
@@ -166,6 +315,9 @@ public class NTGA implements Algorithm{
                 mutate(childInList, mutationRate, false);  // in-place mutate the individual
             }
         }
+        if (metrics != null)
+            metrics.clonePrevention(newPopulation.size(), iterations);
+        return iterations;
     }
 
     /**
@@ -174,19 +326,14 @@ public class NTGA implements Algorithm{
      * @param mutationRate the probability of mutation
      * @param useSwapMutate whether use Swap Mutation for pi
      */
-    private void mutate(List<Solution> IND, double mutationRate, boolean useSwapMutate){
-        Random rand = new Random();
-
+    void mutate(List<Solution> IND, double mutationRate, boolean useSwapMutate){
         int percentMutationRate = (int) (mutationRate * 100);  // mutation rate in hundred percent
         // M-gene Mutation Z
         for (Solution individual : IND) {
-            for (int i = 0; i < individual.z.size(); ++i) {
+            for (int i = 0; i < individual.numOfItems; ++i) {
                 if (rand.nextInt(100) < percentMutationRate) {
-                    if (individual.z.get(i)) {
-                        individual.z.set(i, false);
-                    } else {
-                        individual.z.set(i, true);
-                    }
+                    PackingPlan.flip(individual.packingPlan, i);
+                    individual.genotypeHash = GenotypeHash.flip(individual.genotypeHash, i);
                 }
             }
         }
@@ -195,27 +342,38 @@ public class NTGA implements Algorithm{
         if (useSwapMutate) {
             // Swap Mutation PI
             for (Solution individual : IND) {
-                for (int i = 1; i < individual.pi.size(); ++i) {  // the first tour should not be swap mutated
+                int[] tour = individual.tour;
+                for (int i = 1; i < tour.length; ++i) {  // the first tour should not be swap mutated
                     if (rand.nextInt(100) < percentMutationRate) {
                         // Generate integers in the interval [1, size)
-                        int swapPosition = rand.nextInt(individual.pi.size() - 1) + 1;
+                        int swapPosition = rand.nextInt(tour.length - 1) + 1;
                         while (swapPosition == i)  // make sure the position to be swapped is different from current
-                            swapPosition = rand.nextInt(individual.pi.size() - 1) + 1;
+                            swapPosition = rand.nextInt(tour.length - 1) + 1;
                         // swap
-                        Collections.swap(individual.pi, i, swapPosition);
+                        int city = tour[i];
+                        tour[i] = tour[swapPosition];
+                        tour[swapPosition] = city;
                     }
                 }
+                individual.genotypeHash = GenotypeHash.of(individual.tour, individual.packingPlan);
             }
         }
         else {
-            int reverseStart = rand.nextInt(IND.get(0).pi.size() - 1) + 1;  // random select a point from [1, piSize)
-            int piMutateNumber = (int) (mutationRate * IND.get(0).pi.size());  // number of pi gene to be mutated
+            int size = IND.get(0).tour.length;
+            int reverseStart = rand.nextInt(size - 1) + 1;  // random select a point from [1, piSize)
+            int piMutateNumber = (int) (mutationRate * size);  // number of pi gene to be mutated
             int reverseEnd = reverseStart + piMutateNumber;  // reverse end point index
-            if (reverseEnd > IND.get(0).pi.size()){  // index limitation
-                reverseEnd = IND.get(0).pi.size();
+            if (reverseEnd > size){  // index limitation
+                reverseEnd = size;
             }
             for (Solution individual : IND){
-                Collections.reverse(individual.pi.subList(reverseStart, reverseEnd));  // mutate execution
+                int[] tour = individual.tour;
+                individual.genotypeHash = GenotypeHash.reverse(individual.genotypeHash, tour, reverseStart, reverseEnd);
+                for (int i = reverseStart, j = reverseEnd - 1; i < j; ++i, --j) {  // mutate execution
+                    int city = tour[i];
+                    tour[i] = tour[j];
+                    tour[j] = city;
+                }
             }
 
         }
@@ -228,72 +386,40 @@ public class NTGA implements Algorithm{
      * @param orderCrossoverRate the percentage of parent gene not be reserved
      * @return generated offspring by order crossover operation
      */
-    private List<Solution> orderCrossover(TravelingThiefProblem problem, List<Solution> population, double orderCrossoverRate, double uniformCrossoverRate){
-        Random rand = new Random();
+    List<Solution> orderCrossover(TravelingThiefProblem problem, List<Solution> population, double orderCrossoverRate, double uniformCrossoverRate){
         // get two parents
         Solution parent1 = population.get(0);
         Solution parent2 = population.get(1);
 
         // pi size
-        int size = parent1.pi.size();
+        int size = parent1.tour.length;
         int sublistLength = (int)((1.00 - orderCrossoverRate) * size);  // sublist length
         // choose two random numbers for the start and end indices of the slice
         int start = rand.nextInt(size - sublistLength);
         int end = start + sublistLength;
 //        System.out.println("slice: " + start + ", " + end);
 
-        // add the sublist in between the start and end points
-        List<Integer> sublist1 = new ArrayList<>(parent1.pi.subList(start, end));
-        List<Integer> sublist2 = new ArrayList<>(parent2.pi.subList(start, end));
-        // init children
-        List<Integer> firstChildPI = new ArrayList<>();
-        List<Integer> secondChildPI = new ArrayList<>();
-
-        // iterate over each city in the parent tours
-        for (int i = 0; i < size; ++i){
-            // get the city at the current index in each of the two parent tours
-            int currentCityInTour1 = parent1.pi.get(i);
-            int currentCityInTour2 = parent2.pi.get(i);
-            // if sublist1 does not already contain the current city in parent2, add it
-            if (!sublist1.contains(currentCityInTour2))
-                firstChildPI.add(currentCityInTour2);
-            // if sublist2 does not already contain the current city in parent1, add it
-            if (!sublist2.contains(currentCityInTour1))
-                secondChildPI.add(currentCityInTour1);
-        }
-        // add sublist into child
-        firstChildPI.addAll(start, sublist1);
-        secondChildPI.addAll(start, sublist2);
+        // order crossover on primitive tours in linear time
+        int[] firstChildPI = new int[size];
+        int[] secondChildPI = new int[size];
+        Crossover.orderCrossover(parent1.tour, parent2.tour, start, end, firstChildPI);
+        Crossover.orderCrossover(parent2.tour, parent1.tour, start, end, secondChildPI);
 
         // crossover rate in hundred percent
         int percentUniformCrossoverRate = (int) (uniformCrossoverRate * 100);
 
-        List<Boolean> firstChildZ = new ArrayList<>();
-        List<Boolean> secondChildZ = new ArrayList<>();
-
         // perform uniform crossover for Z
-        for (int sizeIndex = 0; sizeIndex < parent1.z.size(); ++sizeIndex){
-            if (rand.nextInt(100) < percentUniformCrossoverRate){
-                firstChildZ.add(parent2.z.get(sizeIndex));
-                secondChildZ.add(parent1.z.get(sizeIndex));
-            }
-            else {
-                firstChildZ.add(parent1.z.get(sizeIndex));
-                secondChildZ.add(parent2.z.get(sizeIndex));
-            }
-        }
+        int numOfItems = parent1.numOfItems;
+        long[] firstChildZ = PackingPlan.create(numOfItems);
+        long[] secondChildZ = PackingPlan.create(numOfItems);
+        Crossover.uniformCrossover(parent1.packingPlan, parent2.packingPlan, numOfItems,
+                percentUniformCrossoverRate, rand, firstChildZ, secondChildZ);
 
         // init two children
-        Solution child1 = new Solution();
-//        child1.pi = firstChildPI;
-//        child1.z = firstChildZ;
-        child1.pi = new ArrayList<>(firstChildPI);
-        child1.z = new ArrayList<>(firstChildZ);
-        Solution child2 = new Solution();
-//        child2.pi = secondChildPI;
-//        child2.z = secondChildZ;
-        child2.pi = new ArrayList<>(secondChildPI);
-        child2.z = new ArrayList<>(secondChildZ);
+        Solution child1 = new Solution(firstChildPI, firstChildZ, numOfItems);
+        child1.genotypeHash = GenotypeHash.of(firstChildPI, firstChildZ);
+        Solution child2 = new Solution(secondChildPI, secondChildZ, numOfItems);
+        child2.genotypeHash = GenotypeHash.of(secondChildPI, secondChildZ);
         // init children population
         List<Solution> children = new ArrayList<>();
         // add into children
@@ -310,7 +436,6 @@ public class NTGA implements Algorithm{
      * @return the best individual
      * */
     private Solution tournamentSelect(List<Solution> population, int tournamentSize, int populationSize){
-        Random rand = new Random();
         Solution best = population.get(rand.nextInt(populationSize));  // random select a individual
         for (int i = 1; i < tournamentSize; ++i){
             Solution individual = population.get(rand.nextInt(populationSize));  // random select a individual
@@ -321,82 +446,37 @@ public class NTGA implements Algorithm{
     }
 
     /**
-     * fast non-dominated sorting with time complexity O(MN^2) which M is objectives and N is individual number
+     * bi-objective non-dominated sorting with time complexity O(N log N) which N is individual number
      * @param updateRank whether update the individual rank
+     * @return null if the ranks are updated - otherwise the ranks of all individuals in ascending order
      * */
-    private List<Integer> nonDominatedSorting(List<Solution> population, boolean showInfo, boolean updateRank){
-        // how many other individuals can dominate an individual - 多少个体能支配它
-        List<Integer> dominated = new ArrayList<>(population.size());
-        // list of individuals that an individual dominates - 支配哪些个体
-        List<List<Integer>> dominates = new ArrayList<>(population.size());
-        List<List<Integer>> paretoFront = new ArrayList<>();  // Pareto front
-
-        List<Integer> ranks = new ArrayList<>();  // a list is used to store rank
-
+    List<Integer> nonDominatedSorting(List<Solution> population, boolean showInfo, boolean updateRank){
+        // objectives of the individuals - time and negative profit
+        double[] time = new double[population.size()];
+        double[] negativeProfit = new double[population.size()];
         for (Solution s : population){
-            if (updateRank) {
-                s.rank = Integer.MAX_VALUE;  // reset rank for each individual
-            }
-            // init list
-            dominated.add(0);
-            dominates.add(new ArrayList<>());
-        }
-        paretoFront.add(new ArrayList<>());
-
-        for (Solution p : population){
-            for (Solution q : population){
-                if (p.getRelation(q) == 1){  // p dominates q
-                    dominates.get(p.index).add(q.index);
-                }
-                else if (p.getRelation(q) == -1){  // p is dominated by q
-                    dominated.set(p.index, dominated.get(p.index) + 1);
-                }
-            }
-            if (dominated.get(p.index) == 0){  // pareto front
-                if (updateRank) {
-                    p.rank = 0;
-                }
-                else {
-                    ranks.add(0);
-                }
-                paretoFront.get(0).add(p.index);
-            }
+            time[s.index] = s.time;
+            negativeProfit[s.index] = -s.profit;
         }
 
-        if (showInfo) {
-            System.out.println("dominated: " + dominated);
-            System.out.println("dominates: " + dominates);
-        }
+        int[] ranks = NonDominatedSorting.rank(time, negativeProfit);
 
-        int i = 0;
-        while (paretoFront.get(i).size() > 0){
-            List<Integer> temp = new ArrayList<>();
-            for (int m = 0; m < paretoFront.get(i).size(); ++m){
-                for (int n = 0; n < dominates.get(paretoFront.get(i).get(m)).size(); ++n){
-                    int otherIndividual = dominates.get(paretoFront.get(i).get(m)).get(n);
-                    dominated.set(otherIndividual, dominated.get(otherIndividual)-1);
-                    if (dominated.get(otherIndividual) == 0){
-                        if (updateRank) {
-                            population.get(otherIndividual).rank = i + 1;  // sorting
-                        }
-                        else {
-                            ranks.add(i + 1);
-                        }
-                        temp.add(otherIndividual);
-                    }
-                }
-            }
-            ++i;
-            paretoFront.add(temp);
-        }
         if (showInfo)
-            System.out.println("paretoFront: " + paretoFront);
+            System.out.println("ranks: " + Arrays.toString(ranks));
 
         if (updateRank){
+            for (Solution s : population){
+                s.rank = ranks[s.index];
+            }
             return null;
         }
         else {
-            return ranks;
+            // the ranks are listed front by front
+            Arrays.sort(ranks);
+            List<Integer> sortedRanks = new ArrayList<>(ranks.length);
+            for (int rank : ranks)
+                sortedRanks.add(rank);
+            return sortedRanks;
         }
     }
 
@@ -404,9 +484,7 @@ public class NTGA implements Algorithm{
      * Initialise population
      * @param initPackingRate initialised packing rate (Z)
      */
-    private List<Solution> initPopulation(TravelingThiefProblem problem, int populationSize, double initPackingRate){
-        Random rand = new Random();
-
+    List<Solution> initPopulation(TravelingThiefProblem problem, int populationSize, double initPackingRate){
         List<Solution> population = new ArrayList<>();  // init a population
         int individualIndex = 0;  // init individual index
         int packingRate = (int) (initPackingRate * 100);  // convert packing rate into hundred percent (int)
@@ -415,7 +493,7 @@ public class NTGA implements Algorithm{
         while(population.size() < populationSize){
             // random init tour (pi) scheme
             List<Integer> pi = getIndex(1, problem.numOfCities);
-            Collections.shuffle(pi);
+            Collections.shuffle(pi, rand);
             pi.add(0,0);
 
             // init packing scheme
@@ -431,8 +509,10 @@ public class NTGA implements Algorithm{
 
             // evaluate the individual
             Solution s = problem.evaluate(pi, z, true);
+            ++numOfEvaluations;
             if (s != null) {
                 s.index = individualIndex++;
+                s.genotypeHash = GenotypeHash.of(s.tour, s.packingPlan);
                 population.add(s);  // add the individual into population
             }
         }
@@ -441,13 +521,10 @@ public class NTGA implements Algorithm{
 
     /**
      * the function is used to judge whether the individual is cloned from population
+     * @param population hash index of the population - only genotypes with the same hash are compared
      */
-    private boolean isCloned(Solution individual, List<Solution> population){
-        for (Solution other : population){
-            if (individual.equalsInDesignSpace(other))  // compare the genotype between individual and other
-                return true;
-        }
-        return false;
+    boolean isCloned(Solution individual, CloneIndex population){
+        return population.contains(individual);
     }
 
     private List<Integer> getIndex(int low, int high) {
@@ -0,0 +1,288 @@
+package algorithms;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timers and counters of the phases of NTGA (see NTGA.setMetrics). Without metrics NTGA only checks
+ * a null reference per phase, so the instrumentation costs nothing if it is not used.
+ *
+ * The phases are timed where evolve executes them for the first child: the retry loop, which
+ * breeds offspring again while the parents are better, is timed as a whole. The iterations of the
+ * clone prevention are counted in and outside of the retry loop.
+ *
+ * The metrics can be shared by several NTGA instances and read while they run, e.g. through JMX
+ * after register. If enabled and supported by the JVM, each phase is also committed as a JFR event
+ * (see PhaseEvents) - the event classes are only loaded then. PhaseEvents is in src/jfr/java and
+ * only built on Java 11 and later.
+ */
+public class NTGAMetrics implements NTGAMetricsMBean {
+
+    // ! the phases of an epoch
+    public enum Phase {
+        SORTING, SELECTION, CROSSOVER, MUTATION, CLONE_PREVENTION, RETRY, EVALUATION
+    }
+
+    /**
+     * Receives each measured phase - implemented by PhaseEvents to commit JFR events.
+     */
+    interface EventSink {
+        void commit(Phase phase, long nanos, long count);
+    }
+
+    // ! time and number of executions per phase
+    private final LongAdder[] nanos = new LongAdder[Phase.values().length];
+    private final LongAdder[] counts = new LongAdder[Phase.values().length];
+
+    private final LongAdder epochs = new LongAdder();
+    private final LongAdder clonePreventionIterations = new LongAdder();
+    private final LongAdder clonePreventionChildren = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder giveUps = new LongAdder();
+
+    // ! receives the phases as events or null
+    private volatile EventSink events = null;
+
+    // ! name the metrics are registered with or null
+    private ObjectName objectName = null;
+
+    public NTGAMetrics() {
+        for (int i = 0; i < nanos.length; i++) {
+            nanos[i] = new LongAdder();
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Create metrics and register them at the platform MBean server as
+     * algorithms:type=NTGA,name=[name]. Metrics registered before with the same name are replaced.
+     */
+    public static NTGAMetrics register(String name) {
+        NTGAMetrics metrics = new NTGAMetrics();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName("algorithms:type=NTGA,name=" + ObjectName.quote(name));
+            try {
+                server.registerMBean(metrics, objectName);
+            } catch (InstanceAlreadyExistsException e) {
+                server.unregisterMBean(objectName);
+                server.registerMBean(metrics, objectName);
+            }
+            metrics.objectName = objectName;
+        } catch (JMException e) {
+            throw new RuntimeException(String.format("Metrics %s could not be registered.", name), e);
+        }
+        return metrics;
+    }
+
+    /**
+     * Remove the metrics from the platform MBean server if they are registered.
+     */
+    public void unregister() {
+        if (objectName == null)
+            return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            throw new RuntimeException(String.format("Metrics %s could not be unregistered.", objectName), e);
+        }
+        objectName = null;
+    }
+
+    /**
+     * Record a phase which started at startNanos (System.nanoTime) and ends now.
+     *
+     * @return the end of the phase - the start of the next one
+     */
+    long record(Phase phase, long startNanos) {
+        return record(phase, startNanos, 0);
+    }
+
+    /**
+     * @param count iterations, retries, etc. of the phase which are passed to the event
+     */
+    long record(Phase phase, long startNanos, long count) {
+        long end = System.nanoTime();
+        nanos[phase.ordinal()].add(end - startNanos);
+        counts[phase.ordinal()].increment();
+        EventSink sink = events;
+        if (sink != null)
+            sink.commit(phase, end - startNanos, count);
+        return end;
+    }
+
+    void epoch() {
+        epochs.increment();
+    }
+
+    void clonePrevention(int children, int iterations) {
+        clonePreventionChildren.add(children);
+        clonePreventionIterations.add(iterations);
+    }
+
+    void retries(int retries, boolean isGivenUp) {
+        this.retries.add(retries);
+        if (isGivenUp)
+            giveUps.increment();
+    }
+
+    public long getNanos(Phase phase) {
+        return nanos[phase.ordinal()].sum();
+    }
+
+    public long getCount(Phase phase) {
+        return counts[phase.ordinal()].sum();
+    }
+
+    @Override
+    public long getEpochs() {
+        return epochs.sum();
+    }
+
+    @Override
+    public long getSortingNanos() {
+        return getNanos(Phase.SORTING);
+    }
+
+    @Override
+    public long getSortingCount() {
+        return getCount(Phase.SORTING);
+    }
+
+    @Override
+    public long getSelectionNanos() {
+        return getNanos(Phase.SELECTION);
+    }
+
+    @Override
+    public long getSelectionCount() {
+        return getCount(Phase.SELECTION);
+    }
+
+    @Override
+    public long getCrossoverNanos() {
+        return getNanos(Phase.CROSSOVER);
+    }
+
+    @Override
+    public long getCrossoverCount() {
+        return getCount(Phase.CROSSOVER);
+    }
+
+    @Override
+    public long getMutationNanos() {
+        return getNanos(Phase.MUTATION);
+    }
+
+    @Override
+    public long getMutationCount() {
+        return getCount(Phase.MUTATION);
+    }
+
+    @Override
+    public long getClonePreventionNanos() {
+        return getNanos(Phase.CLONE_PREVENTION);
+    }
+
+    @Override
+    public long getClonePreventionCount() {
+        return getCount(Phase.CLONE_PREVENTION);
+    }
+
+    @Override
+    public long getClonePreventionIterations() {
+        return clonePreventionIterations.sum();
+    }
+
+    @Override
+    public long getClonePreventionChildren() {
+        return clonePreventionChildren.sum();
+    }
+
+    @Override
+    public long getRetryNanos() {
+        return getNanos(Phase.RETRY);
+    }
+
+    @Override
+    public long getRetryCount() {
+        return getCount(Phase.RETRY);
+    }
+
+    @Override
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    @Override
+    public long getGiveUps() {
+        return giveUps.sum();
+    }
+
+    @Override
+    public long getEvaluationNanos() {
+        return getNanos(Phase.EVALUATION);
+    }
+
+    @Override
+    public long getEvaluationCount() {
+        return getCount(Phase.EVALUATION);
+    }
+
+    @Override
+    public boolean isEventsEnabled() {
+        return events != null;
+    }
+
+    @Override
+    public void setEventsEnabled(boolean eventsEnabled) {
+        if (!eventsEnabled) {
+            events = null;
+            return;
+        }
+        try {
+            events = (EventSink) Class.forName("algorithms.PhaseEvents").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new RuntimeException("JFR events are not supported by this JVM or build.", e);
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < nanos.length; i++) {
+            nanos[i].reset();
+            counts[i].reset();
+        }
+        epochs.reset();
+        clonePreventionIterations.reset();
+        clonePreventionChildren.reset();
+        retries.reset();
+        giveUps.reset();
+    }
+
+    /**
+     * @return a table with the time and the share of each phase
+     */
+    @Override
+    public String toString() {
+        long total = 0;
+        for (Phase phase : Phase.values())
+            total += getNanos(phase);
+
+        StringBuilder sb = new StringBuilder(String.format("epochs: %s%n", getEpochs()));
+        for (Phase phase : Phase.values()) {
+            sb.append(String.format("%-16s %10.1f ms %5.1f %% %10s times%n", phase.name().toLowerCase(),
+                    getNanos(phase) / 1e6, total > 0 ? 100.0 * getNanos(phase) / total : 0, getCount(phase)));
+        }
+        long children = getClonePreventionChildren();
+        sb.append(String.format("clone prevention: %.3f iterations per child%n",
+                children > 0 ? (double) getClonePreventionIterations() / children : 0));
+        sb.append(String.format("retry loop: %s retries, %s give-ups", getRetries(), getGiveUps()));
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,74 @@
+package algorithms;
+
+/**
+ * Management interface of NTGAMetrics. Times are in nanoseconds, counts are the number of times a
+ * phase was executed.
+ */
+public interface NTGAMetricsMBean {
+
+    long getEpochs();
+
+    long getSortingNanos();
+
+    long getSortingCount();
+
+    long getSelectionNanos();
+
+    long getSelectionCount();
+
+    long getCrossoverNanos();
+
+    long getCrossoverCount();
+
+    long getMutationNanos();
+
+    long getMutationCount();
+
+    long getClonePreventionNanos();
+
+    long getClonePreventionCount();
+
+    /**
+     * @return number of mutations of all children to make them different from the population
+     */
+    long getClonePreventionIterations();
+
+    /**
+     * @return number of children checked by the clone prevention
+     */
+    long getClonePreventionChildren();
+
+    long getRetryNanos();
+
+    long getRetryCount();
+
+    /**
+     * @return number of offspring bred again because the parents were better
+     */
+    long getRetries();
+
+    /**
+     * @return number of retry loops stopped by the limit with the parents still better
+     */
+    long getGiveUps();
+
+    long getEvaluationNanos();
+
+    long getEvaluationCount();
+
+    /**
+     * @return true if the phases are committed as JFR events as well
+     */
+    boolean isEventsEnabled();
+
+    /**
+     * Commit each phase as a JFR event - only possible if the JVM supports JFR.
+     */
+    void setEventsEnabled(boolean eventsEnabled);
+
+    /**
+     * Set all timers and counters to zero.
+     */
+    void reset();
+
+}
@@ -0,0 +1,70 @@
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Non-dominated sorting specialised for two objectives (both minimised) with time complexity
+ * O(N log N). The individuals are sorted lexicographically by the objectives and each one is put
+ * into the first front which does not dominate it. Because of the order it is enough to compare
+ * with the last individual added to a front and the first such front is found by binary search.
+ *
+ * The ranks are the same as the ones of the fast non-dominated sorting: equal objective values do
+ * not dominate each other.
+ */
+public final class NonDominatedSorting {
+
+    private NonDominatedSorting() {
+    }
+
+    /**
+     * @param f1 first objective of each individual
+     * @param f2 second objective of each individual
+     * @return the rank (index of the Pareto front starting at 0) of each individual
+     */
+    public static int[] rank(double[] f1, double[] f2) {
+        int n = f1.length;
+        int[] ranks = new int[n];
+
+        // sort lexicographically by both objectives
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; ++i)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> {
+            int c = compare(f1[a], f1[b]);
+            return c != 0 ? c : compare(f2[a], f2[b]);
+        });
+
+        // objectives of the individual which was added last to each front
+        double[] lastF1 = new double[n];
+        double[] lastF2 = new double[n];
+        int numOfFronts = 0;
+
+        for (int p : order) {
+            // find the first front which does not dominate the individual
+            int low = 0;
+            int high = numOfFronts;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (lastF2[middle] < f2[p] || (lastF2[middle] == f2[p] && lastF1[middle] < f1[p]))
+                    low = middle + 1;
+                else
+                    high = middle;
+            }
+            ranks[p] = low;
+            lastF1[low] = f1[p];
+            lastF2[low] = f2[p];
+            if (low == numOfFronts)
+                ++numOfFronts;
+        }
+
+        return ranks;
+    }
+
+    /**
+     * compare with the same semantic as the dominance relation, i.e. -0.0 and 0.0 are equal
+     */
+    private static int compare(double a, double b) {
+        return a < b ? -1 : (a > b ? 1 : 0);
+    }
+
+}
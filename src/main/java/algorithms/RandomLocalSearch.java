@@ -1,11 +1,20 @@
 package algorithms;
 
-import model.NonDominatedSet;
+import model.ConcurrentNonDominatedSet;
+import model.DeltaEvaluator;
+import model.EvaluationResult;
+import model.PackingPlan;
 import model.Solution;
 import model.TravelingThiefProblem;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * This algorithm is a naive random search, where on random tours items are added in random order.
@@ -14,6 +23,13 @@ import java.util.List;
  * If the attribute pi is set the tour is kept fixed and only the order if adding items to it are
  * modified.
  *
+ * As the tour does not change while items are added, each pickup is evaluated incrementally
+ * (see DeltaEvaluator) and solutions of the same tour share the tour array.
+ *
+ * The trials can be spread over several threads. Each thread gets an exact share of the trials and
+ * its own random number generator, and all threads feed the same non-dominated set. Together they
+ * do exactly maxNumOfTrials evaluations, so the results are comparable to a single thread.
+ *
  */
 public class RandomLocalSearch implements Algorithm {
 
@@ -23,93 +39,181 @@ public class RandomLocalSearch implements Algorithm {
     //! only do search on this tour
     private List<Integer> pi = null;
 
+    //! number of threads the trials are spread over
+    private int numOfThreads = 1;
+
+    //! seed to derive the random number generator of each thread
+    private long seed;
+
+    //! evaluations of all threads in the last search
+    private final LongAdder numOfEvaluations = new LongAdder();
+
     //! default constructor for this very naive algorithm
     public RandomLocalSearch(int numberOfTrials) {
+        this(numberOfTrials, 1, System.nanoTime());
+    }
+
+    /**
+     * @param numberOfTrials number of evaluations of all threads together
+     * @param numOfThreads number of threads which search in parallel
+     * @param seed seed of the random number generators - a single thread uses it directly, otherwise
+     *             the seed of each thread is drawn from a generator with this seed
+     */
+    public RandomLocalSearch(int numberOfTrials, int numOfThreads, long seed) {
+        if (numOfThreads < 1) throw new RuntimeException("At least one thread is necessary.");
         this.maxNumOfTrials = numberOfTrials;
+        this.numOfThreads = numOfThreads;
+        this.seed = seed;
     }
 
 
     public List<Solution> solve(TravelingThiefProblem problem) {
 
-        // set the evaluation counter to 0 and initialize the non-dominated set
+        // initialize the non-dominated set shared by all threads
+        ConcurrentNonDominatedSet nds = new ConcurrentNonDominatedSet();
+        numOfEvaluations.reset();
+
+        if (numOfThreads == 1) {
+            search(problem, maxNumOfTrials, new Random(seed), nds);
+            return new ArrayList<>(nds.snapshot());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(numOfThreads);
+        try {
+            // seeds like seed + w give correlated streams - draw them from one generator instead
+            Random seeds = new Random(seed);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < numOfThreads; ++w) {
+                // the first threads do one more trial if the budget can not be divided evenly
+                final int numOfTrials = maxNumOfTrials / numOfThreads + (w < maxNumOfTrials % numOfThreads ? 1 : 0);
+                final Random rand = new Random(seeds.nextLong());
+                if (numOfTrials > 0)
+                    futures.add(executor.submit(() -> search(problem, numOfTrials, rand, nds)));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Random local search was interrupted.", e);
+        }
+        catch (ExecutionException e) {
+            throw new RuntimeException("Random local search failed while solving the problem.", e.getCause());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        return new ArrayList<>(nds.snapshot());
+
+    }
+
+    /**
+     * Do exactly numOfTrials evaluations and add the results to the non-dominated set. The tour is
+     * fixed while the items are added, so each pickup is evaluated incrementally: only the part of
+     * the tour after the city of the item is simulated again. Solutions are only created if they
+     * are not dominated by the set and all solutions of one tour share the same tour array.
+     */
+    private void search(TravelingThiefProblem problem, int numOfTrials, Random rand, ConcurrentNonDominatedSet nds) {
+
+        // set the evaluation counter to 0
         int counter = 0;
-        NonDominatedSet nds = new NonDominatedSet();
+
+        int[] pi = new int[problem.numOfCities];
+        long[] z = PackingPlan.create(problem.numOfItems);
+        int[] rnd = new int[problem.numOfItems];
+        DeltaEvaluator evaluator = new DeltaEvaluator(problem);
+        EvaluationResult result = new EvaluationResult();
+
+        // either sample random tours or use the tour provided to the algorithm
+        if (this.pi != null) {
+            for (int i = 0; i < pi.length; i++) pi[i] = this.pi.get(i);
+        } else {
+            for (int i = 0; i < pi.length; i++) pi[i] = i;
+        }
 
         // loop while the function evaluation limit is reached
-        while (true) {
-
-            // either sample a random tour or use the tour provided to the algorithm
-            List<Integer> pi;
-            if (this.pi == null) {
-                // Create a random permutation
-                pi = getIndex(1, problem.numOfCities);
-                java.util.Collections.shuffle(pi);
-                pi.add(0,0);
-            } else {
-                pi = this.pi;
-            }
+        while (counter < numOfTrials) {
 
-            // Create an empty packing plan
-            List<Boolean> z = new ArrayList<>(problem.numOfItems);
-            for (int j = 0; j < problem.numOfItems; j++) {
-                z.add(false);
-            }
+            // Create a random permutation - the tour always starts at city 0
+            if (this.pi == null) shuffle(pi, 1, rand);
 
-            // evaluate for this random tour
-            Solution s = problem.evaluate(pi,z, true);
-            nds.add(s);
+            // evaluate for this random tour and an empty packing plan
+            evaluator.reset(pi, z);
+            evaluator.evaluate(result);
+            int[] tour = archive(problem, evaluator, result, null, nds);
             ++counter;
 
             // this is the order of items we will try to add to generated a new non-dominated point
-            List<Integer> rnd = getIndex(0, problem.numOfItems);
-            java.util.Collections.shuffle(rnd);
+            for (int j = 0; j < rnd.length; j++) rnd[j] = j;
+            shuffle(rnd, 0, rand);
 
             // no iteratively evaluate when an item is added and add to non-dominated set
             double weight = 0.0;
-            for (int j = 0; j < rnd.size(); j++) {
+            for (int j = 0; j < rnd.length && counter < numOfTrials; j++) {
 
                 // item to be considered for adding
-                int item = rnd.get(j);
+                int item = rnd[j];
 
                 // if picking up this item will not violate this maximum constraint
                 if (weight + problem.weight[item] < problem.maxWeight) {
 
-                    // pick the item
-                    z.set(item, true);
+                    // pick the item and evaluate the suffix of the tour after its city
+                    evaluator.flip(item);
+                    evaluator.evaluate(result);
                     weight += problem.weight[item];
 
-                    // evaluate and update the non-dominated solutions
-                    s = problem.evaluate(pi,z, true);
-                    nds.add(s);
+                    // update the non-dominated solutions
+                    tour = archive(problem, evaluator, result, tour, nds);
 
                     // increase the function evaluation counter
                     ++counter;
 
                 }
 
-                if (counter == this.maxNumOfTrials) break;
-
             }
 
-            if (counter == this.maxNumOfTrials) break;
-
-
         }
-        return nds.entries;
 
-    }
+        numOfEvaluations.add(counter);
 
-    private List<Integer> getIndex(int low, int high) {
-        List<Integer> l = new ArrayList<>();
-        for (int j = low; j < high; j++) {
-            l.add(j);
-        }
-        return l;
     }
 
+    @Override
+    public long getNumOfEvaluations() {
+        return numOfEvaluations.sum();
+    }
 
+    /**
+     * Add the current genotype of the evaluator to the non-dominated set if it is not dominated.
+     * Nothing is allocated for a dominated genotype.
+     *
+     * @param tour copy of the current tour if one was already created for this tour or null
+     * @return the copy of the current tour used by the added solutions or null
+     */
+    private int[] archive(TravelingThiefProblem problem, DeltaEvaluator evaluator, EvaluationResult result,
+                          int[] tour, ConcurrentNonDominatedSet nds) {
+        if (nds.isDominated(result.time, result.profit)) return tour;
+
+        if (tour == null) tour = evaluator.getTour().clone();
+        Solution s = new Solution(tour, evaluator.getPackingPlan().clone(), problem.numOfItems);
+        s.time = result.time;
+        s.profit = result.profit;
+        s.singleObjective = result.singleObjective;
+        nds.add(s);
+        return tour;
+    }
 
-
-
+    /**
+     * Fisher-Yates shuffle of the positions [from, a.length)
+     */
+    private static void shuffle(int[] a, int from, Random rand) {
+        for (int i = a.length - 1; i > from; i--) {
+            int j = from + rand.nextInt(i - from + 1);
+            int tmp = a[i];
+            a[i] = a[j];
+            a[j] = tmp;
+        }
+    }
 
 }
@@ -0,0 +1,212 @@
+package io;
+
+import model.ItemIndex;
+import model.TravelingThiefProblem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+
+/**
+ * Compact binary format of a problem which can be loaded without any parsing. The file starts with
+ * a header (magic number, version, length and CRC32 checksum of the payload). The payload contains
+ * the header fields of the text format, the coordinates, the item arrays and the index of the
+ * items at each city, all in little endian byte order:
+ *
+ * int numOfCities, int numOfItems, int maxWeight, int reserved,
+ * double minSpeed, double maxSpeed, double R,
+ * double[2 * numOfCities] coordinates, int[numOfItems] cityOfItem,
+ * double[numOfItems] weight, double[numOfItems] profit,
+ * int[numOfCities + 1] offset and int[numOfItems] item of the ItemIndex
+ *
+ * The name of the problem is not stored - as for the text format it is set by the caller.
+ * Converting text files: java io.BinaryProblemFormat file.txt... writes file.bin next to each file.
+ */
+public final class BinaryProblemFormat {
+
+    // ! "TTPB" - identifies a file of this format
+    public static final int MAGIC = 0x54545042;
+
+    // ! version of the layout - files of other versions are rejected
+    public static final int VERSION = 1;
+
+    // ! file extension of the binary format
+    public static final String EXTENSION = ".bin";
+
+    // ! magic number, version, length and checksum of the payload
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8;
+
+    private BinaryProblemFormat() {
+    }
+
+    /**
+     * Convert the given text files to the binary format. Each one is written next to the text file.
+     */
+    public static void main(String[] args) throws IOException {
+        for (String arg : args) {
+            Path text = Paths.get(arg);
+            Path binary = binaryPath(text);
+            write(ProblemReader.read(text), binary);
+            System.out.println(String.format("%s -> %s", text, binary));
+        }
+    }
+
+    /**
+     * @return the path of the binary file which belongs to a text file
+     */
+    public static Path binaryPath(Path text) {
+        String name = text.getFileName().toString();
+        if (name.endsWith(".txt")) name = name.substring(0, name.length() - 4);
+        return text.resolveSibling(name + EXTENSION);
+    }
+
+    /**
+     * Write an initialized problem in the binary format.
+     */
+    public static void write(TravelingThiefProblem problem, Path path) throws IOException {
+
+        int n = problem.numOfCities;
+        int m = problem.numOfItems;
+        ItemIndex index = problem.getItemIndex();
+        if (index == null) throw new RuntimeException("Problem must be initialized before it is written.");
+
+        long size = HEADER_SIZE + payloadSize(n, m);
+        if (size > Integer.MAX_VALUE) throw new RuntimeException("Problem is too large for the binary format.");
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        skip(buffer, HEADER_SIZE);
+
+        buffer.putInt(n).putInt(m).putInt(problem.maxWeight).putInt(0);
+        buffer.putDouble(problem.minSpeed).putDouble(problem.maxSpeed).putDouble(problem.R);
+        for (double[] coordinate : problem.coordinates) buffer.putDouble(coordinate[0]).putDouble(coordinate[1]);
+        for (int city : problem.cityOfItem) buffer.putInt(city);
+        for (double weight : problem.weight) buffer.putDouble(weight);
+        for (double profit : problem.profit) buffer.putDouble(profit);
+        for (int c = 0; c <= n; c++) buffer.putInt(c < n ? index.begin(c) : m);
+        for (int slot = 0; slot < m; slot++) buffer.putInt(index.item(slot));
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_SIZE, buffer.capacity() - HEADER_SIZE);
+        buffer.putInt(0, MAGIC).putInt(4, VERSION).putLong(8, buffer.capacity() - HEADER_SIZE).putLong(16, crc.getValue());
+
+        ((Buffer) buffer).rewind();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+    }
+
+    /**
+     * Read a problem from a file by mapping it into memory.
+     */
+    public static TravelingThiefProblem read(Path path) throws IOException {
+        return read(ByteScanner.map(path));
+    }
+
+    /**
+     * Read a problem from a stream - the stream is read until its end and closed.
+     */
+    public static TravelingThiefProblem read(InputStream is) throws IOException {
+        return read(ByteScanner.readFully(is));
+    }
+
+    /**
+     * Read a problem from the remaining bytes of a buffer.
+     */
+    public static TravelingThiefProblem read(ByteBuffer source) {
+
+        ByteBuffer buffer = source.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+            throw new RuntimeException("Not a binary problem file.");
+        if (buffer.getInt(4) != VERSION)
+            throw new RuntimeException(String.format("Binary problem file has version %s but %s is supported.",
+                    buffer.getInt(4), VERSION));
+        if (buffer.getLong(8) != buffer.remaining() - HEADER_SIZE)
+            throw new RuntimeException("Binary problem file is truncated.");
+        if (buffer.getLong(16) != checksum(buffer))
+            throw new RuntimeException("Checksum of the binary problem file does not match.");
+
+        skip(buffer, HEADER_SIZE);
+        TravelingThiefProblem problem = new TravelingThiefProblem();
+
+        int n = buffer.getInt();
+        int m = buffer.getInt();
+        problem.maxWeight = buffer.getInt();
+        buffer.getInt();
+        if (n < 0 || m < 0 || payloadSize(n, m) != buffer.limit() - HEADER_SIZE)
+            throw new RuntimeException("Binary problem file does not match its header.");
+
+        problem.numOfCities = n;
+        problem.numOfItems = m;
+        problem.minSpeed = buffer.getDouble();
+        problem.maxSpeed = buffer.getDouble();
+        problem.R = buffer.getDouble();
+
+        double[] coordinates = new double[2 * n];
+        buffer.asDoubleBuffer().get(coordinates);
+        skip(buffer, 8 * coordinates.length);
+        problem.coordinates = new double[n][];
+        for (int i = 0; i < n; i++) problem.coordinates[i] = Arrays.copyOfRange(coordinates, 2 * i, 2 * i + 2);
+
+        problem.cityOfItem = new int[m];
+        buffer.asIntBuffer().get(problem.cityOfItem);
+        skip(buffer, 4 * m);
+
+        problem.weight = new double[m];
+        buffer.asDoubleBuffer().get(problem.weight);
+        skip(buffer, 8 * m);
+
+        problem.profit = new double[m];
+        buffer.asDoubleBuffer().get(problem.profit);
+        skip(buffer, 8 * m);
+
+        int[] offset = new int[n + 1];
+        buffer.asIntBuffer().get(offset);
+        skip(buffer, 4 * offset.length);
+
+        int[] item = new int[m];
+        buffer.asIntBuffer().get(item);
+
+        problem.initialize(new ItemIndex(offset, item, problem.cityOfItem, problem.weight, problem.profit));
+        return problem;
+    }
+
+    /**
+     * @return the number of bytes of the payload for the given number of cities and items
+     */
+    private static long payloadSize(long n, long m) {
+        return 4 * 4 + 3 * 8 + 2 * 8 * n + 4 * m + 2 * 8 * m + 4 * (n + 1) + 4 * m;
+    }
+
+    /**
+     * move the position of the buffer forward - called on Buffer to run on Java 8 as well
+     */
+    private static void skip(ByteBuffer buffer, int bytes) {
+        ((Buffer) buffer).position(buffer.position() + bytes);
+    }
+
+    /**
+     * @return the CRC32 checksum of the payload
+     */
+    private static long checksum(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[1 << 16];
+        ByteBuffer payload = buffer.duplicate();
+        skip(payload, HEADER_SIZE);
+        while (payload.hasRemaining()) {
+            int length = Math.min(chunk.length, payload.remaining());
+            payload.get(chunk, 0, length);
+            crc.update(chunk, 0, length);
+        }
+        return crc.getValue();
+    }
+
+}
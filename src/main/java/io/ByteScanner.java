@@ -0,0 +1,259 @@
+package io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+
+/**
+ * Tokenizer working directly on the bytes of a text file. Tokens are separated by blanks (and
+ * optionally commas) and never span a line. Numbers are parsed without creating any objects.
+ *
+ * Numbers with at most 15 significant digits and a small exponent are exactly representable
+ * after scaling by a power of ten, so they are converted directly. Other numbers are parsed by
+ * Double.parseDouble and both ways return exactly the same values as Double.valueOf.
+ */
+final class ByteScanner {
+
+    // ! powers of ten which are exactly representable as double
+    private static final double[] POWER_OF_TEN = new double[23];
+
+    static {
+        POWER_OF_TEN[0] = 1;
+        for (int i = 1; i < POWER_OF_TEN.length; i++) POWER_OF_TEN[i] = POWER_OF_TEN[i - 1] * 10;
+    }
+
+    // ! the content of the file
+    private final ByteBuffer buffer;
+
+    // ! true if commas separate tokens as well
+    private final boolean isCommaBlank;
+
+    // ! position of the next byte to be read
+    private int position;
+
+    ByteScanner(ByteBuffer buffer, boolean isCommaBlank) {
+        this.buffer = buffer;
+        this.isCommaBlank = isCommaBlank;
+        this.position = buffer.position();
+    }
+
+    /**
+     * @return the whole file mapped into memory
+     */
+    static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new RuntimeException("File is too large: " + path);
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * @return the content of the stream - the stream is read until its end and closed
+     */
+    static ByteBuffer readFully(InputStream is) throws IOException {
+        byte[] content = new byte[1 << 16];
+        int length = 0;
+        try (InputStream in = is) {
+            for (int n; (n = in.read(content, length, content.length - length)) != -1; ) {
+                length += n;
+                if (length == content.length) content = Arrays.copyOf(content, content.length << 1);
+            }
+        }
+        return ByteBuffer.wrap(content, 0, length);
+    }
+
+    /**
+     * @return true if there are bytes left
+     */
+    boolean hasRemaining() {
+        return position < buffer.limit();
+    }
+
+    /**
+     * @return true if there is another token in the current line
+     */
+    boolean hasToken() {
+        while (position < buffer.limit() && isBlank(buffer.get(position))) position++;
+        return position < buffer.limit() && !isLineTerminator(buffer.get(position));
+    }
+
+    /**
+     * skip lines which do not contain any token
+     *
+     * @return true if a line with a token follows
+     */
+    boolean skipEmptyLines() {
+        while (hasRemaining() && !hasToken()) skipLine();
+        return hasRemaining();
+    }
+
+    /**
+     * @return true if the next token is exactly the given character
+     */
+    boolean nextTokenIs(char c) {
+        int start = nextToken();
+        int end = tokenEnd();
+        position = end;
+        return end - start == 1 && buffer.get(start) == c;
+    }
+
+    /**
+     * @return the number of the current line starting at 1 - only for error messages
+     */
+    int lineNumber() {
+        int line = 1;
+        for (int i = buffer.position(); i < position; i++) {
+            if (buffer.get(i) == '\n' || (buffer.get(i) == '\r' && (i + 1 == buffer.limit() || buffer.get(i + 1) != '\n')))
+                line++;
+        }
+        return line;
+    }
+
+    /**
+     * @return the next line without its terminator (\n, \r or \r\n like BufferedReader.readLine)
+     */
+    String readLine() {
+        int start = position;
+        int end = start;
+        while (end < buffer.limit() && buffer.get(end) != '\n' && buffer.get(end) != '\r') end++;
+
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = buffer.get(start + i);
+
+        position = end;
+        skipLineTerminator();
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * move behind the end of the current line
+     */
+    void skipLine() {
+        while (position < buffer.limit() && !isLineTerminator(buffer.get(position))) position++;
+        skipLineTerminator();
+    }
+
+    private void skipLineTerminator() {
+        if (position < buffer.limit() && buffer.get(position) == '\r') position++;
+        if (position < buffer.limit() && buffer.get(position) == '\n') position++;
+    }
+
+    /**
+     * move to the first byte of the next token in the current line
+     */
+    private int nextToken() {
+        while (position < buffer.limit() && isBlank(buffer.get(position))) position++;
+        if (position == buffer.limit() || isLineTerminator(buffer.get(position)))
+            throw new RuntimeException("Missing value in line " + lineNumber() + ".");
+        return position;
+    }
+
+    /**
+     * @return the position after the token starting at the current position
+     */
+    private int tokenEnd() {
+        int end = position;
+        while (end < buffer.limit() && !isBlank(buffer.get(end)) && !isLineTerminator(buffer.get(end))) end++;
+        return end;
+    }
+
+    void skipToken() {
+        nextToken();
+        position = tokenEnd();
+    }
+
+    int parseInt() {
+        int start = nextToken();
+        int end = tokenEnd();
+        position = end;
+
+        int i = start;
+        boolean isNegative = buffer.get(i) == '-';
+        if (isNegative || buffer.get(i) == '+') i++;
+
+        // up to 9 digits can not overflow
+        if (i == end || end - i > 9) return Integer.parseInt(token(start, end));
+
+        int value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) return Integer.parseInt(token(start, end));
+            value = value * 10 + digit;
+        }
+        return isNegative ? -value : value;
+    }
+
+    double parseDouble() {
+        int start = nextToken();
+        int end = tokenEnd();
+        position = end;
+
+        int i = start;
+        boolean isNegative = buffer.get(i) == '-';
+        if (isNegative || buffer.get(i) == '+') i++;
+
+        long mantissa = 0;
+        int numOfDigits = 0;
+        int numOfSignificantDigits = 0;
+        int exponent = 0;
+
+        // integer part
+        for (; i < end && isDigit(buffer.get(i)); i++, numOfDigits++) {
+            mantissa = mantissa * 10 + (buffer.get(i) - '0');
+            if (mantissa > 0) numOfSignificantDigits++;
+        }
+
+        // fractional part
+        if (i < end && buffer.get(i) == '.') {
+            for (i++; i < end && isDigit(buffer.get(i)); i++, numOfDigits++) {
+                mantissa = mantissa * 10 + (buffer.get(i) - '0');
+                if (mantissa > 0) numOfSignificantDigits++;
+                exponent--;
+            }
+        }
+
+        // exponent
+        if (i < end && (buffer.get(i) == 'e' || buffer.get(i) == 'E') && numOfDigits > 0) {
+            i++;
+            boolean isNegativeExponent = i < end && buffer.get(i) == '-';
+            if (i < end && (isNegativeExponent || buffer.get(i) == '+')) i++;
+            int value = 0;
+            int first = i;
+            for (; i < end && isDigit(buffer.get(i)) && value < 1000; i++) value = value * 10 + (buffer.get(i) - '0');
+            if (i == first) return Double.parseDouble(token(start, end));
+            exponent += isNegativeExponent ? -value : value;
+        }
+
+        if (i != end || numOfDigits == 0 || numOfSignificantDigits > 15 || exponent < -22 || exponent > 22)
+            return Double.parseDouble(token(start, end));
+
+        double value = exponent >= 0 ? mantissa * POWER_OF_TEN[exponent] : mantissa / POWER_OF_TEN[-exponent];
+        return isNegative ? -value : value;
+    }
+
+    private String token(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = buffer.get(start + i);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\f' || b == 0x0B || (b == ',' && isCommaBlank);
+    }
+
+    private static boolean isLineTerminator(byte b) {
+        return b == '\n' || b == '\r';
+    }
+
+}
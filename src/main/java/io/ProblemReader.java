@@ -0,0 +1,102 @@
+package io;
+
+import model.TravelingThiefProblem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+
+/**
+ * Reads a problem in the text format of the competition. A file is memory-mapped, an input stream
+ * is read in large chunks into a single buffer. The header lines are interpreted as before, but the
+ * lines of the coordinate and item sections are tokenized on the bytes and the numbers are parsed
+ * without creating any objects (see ByteScanner).
+ */
+public final class ProblemReader {
+
+    // ! the content of the problem file
+    private final ByteScanner scanner;
+
+    private ProblemReader(ByteBuffer buffer) {
+        this.scanner = new ByteScanner(buffer, false);
+    }
+
+    /**
+     * Read a problem from a file by mapping it into memory.
+     */
+    public static TravelingThiefProblem read(Path path) throws IOException {
+        return read(ByteScanner.map(path));
+    }
+
+    /**
+     * Read a problem from a stream - the stream is read until its end and closed.
+     */
+    public static TravelingThiefProblem read(InputStream is) throws IOException {
+        return read(ByteScanner.readFully(is));
+    }
+
+    /**
+     * Read a problem from the remaining bytes of a buffer.
+     */
+    public static TravelingThiefProblem read(ByteBuffer buffer) {
+        TravelingThiefProblem problem = new ProblemReader(buffer).parse();
+        problem.initialize();
+        return problem;
+    }
+
+    private TravelingThiefProblem parse() {
+
+        TravelingThiefProblem problem = new TravelingThiefProblem();
+
+        while (scanner.hasRemaining()) {
+
+            String line = scanner.readLine();
+
+            if (line.contains("PROBLEM NAME")) {
+            } else if (line.contains("KNAPSACK DATA TYPE")) {
+            } else if (line.contains("DIMENSION")) {
+                problem.numOfCities = Integer.valueOf(line.split(":")[1].trim());
+                problem.coordinates = new double[problem.numOfCities][2];
+            } else if (line.contains("NUMBER OF ITEMS")) {
+                problem.numOfItems = Integer.valueOf(line.split(":")[1].trim());
+                problem.cityOfItem = new int[problem.numOfItems];
+                problem.weight = new double[problem.numOfItems];
+                problem.profit = new double[problem.numOfItems];
+            } else if (line.contains("RENTING RATIO")) {
+                problem.R = Double.valueOf(line.split(":")[1].trim());
+            } else if (line.contains("CAPACITY OF KNAPSACK")) {
+                problem.maxWeight = Integer.valueOf(line.split(":")[1].trim());
+            } else if (line.contains("MIN SPEED")) {
+                problem.minSpeed = Double.valueOf(line.split(":")[1].trim());
+            } else if (line.contains("MAX SPEED")) {
+                problem.maxSpeed = Double.valueOf(line.split(":")[1].trim());
+            } else if (line.contains("EDGE_WEIGHT_TYPE")) {
+                String edgeWeightType = line.split(":")[1].trim();
+                if (!edgeWeightType.equals("CEIL_2D")) {
+                    throw new RuntimeException("Only edge weight type of CEIL_2D supported.");
+                }
+            } else if (line.contains("NODE_COORD_SECTION")) {
+                for (int i = 0; i < problem.numOfCities; i++) {
+                    scanner.skipToken();
+                    problem.coordinates[i][0] = scanner.parseDouble();
+                    problem.coordinates[i][1] = scanner.parseDouble();
+                    scanner.skipLine();
+                }
+            } else if (line.contains("ITEMS SECTION")) {
+                for (int i = 0; i < problem.numOfItems; i++) {
+                    scanner.skipToken();
+                    problem.profit[i] = scanner.parseDouble();
+                    problem.weight[i] = scanner.parseDouble();
+                    problem.cityOfItem[i] = scanner.parseInt() - 1;
+                    scanner.skipLine();
+                }
+            }
+
+        }
+
+        return problem;
+    }
+
+}
@@ -0,0 +1,211 @@
+package io;
+
+import model.PackingPlan;
+import model.Solution;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+
+/**
+ * Writes the files of a submission. The numbers are encoded directly into a reusable buffer which
+ * is flushed through a file channel, so the size of tours and packing plans does not create any
+ * temporary objects. The format of the variable file (.x) is one line with the tour (cities
+ * starting at 1), one line with the packing plan (0 or 1) and an empty line per solution. The
+ * objective file (.f) has one line with time and profit per solution, both with 16 decimals as
+ * String.format("%.16f") writes them in an English locale.
+ */
+public class SolutionWriter implements Closeable {
+
+    // ! the file which is written
+    private final FileChannel channel;
+
+    // ! bytes which are not written to the file yet
+    private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+    // ! digits of the number which is written
+    private final byte[] digits = new byte[20];
+
+    // ! the shortest representation of the double which is written - see writeDecimal
+    private final StringBuilder text = new StringBuilder(32);
+
+    // ! number of decimals of the objective values
+    private static final int PRECISION = 16;
+
+    /**
+     * @param path the file is created or overwritten
+     */
+    public SolutionWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Write the variable file and the objective file of the solutions.
+     */
+    public static void write(Path variableFile, Path objectiveFile, List<Solution> solutions) throws IOException {
+        try (SolutionWriter x = new SolutionWriter(variableFile); SolutionWriter f = new SolutionWriter(objectiveFile)) {
+            for (Solution solution : solutions) {
+                x.writeVariables(solution);
+                f.writeObjectives(solution);
+            }
+        }
+    }
+
+    /**
+     * write the tour and the packing plan of the solution followed by an empty line
+     */
+    public void writeVariables(Solution solution) throws IOException {
+
+        // add one to the index of each city to match the index of the input format
+        int[] tour = solution.tour;
+        for (int i = 0; i < tour.length; i++) {
+            if (i > 0) put((byte) ' ');
+            putInt(tour[i] + 1);
+        }
+        put((byte) '\n');
+
+        for (int i = 0; i < solution.numOfItems; i++) {
+            if (buffer.remaining() < 2) flush();
+            if (i > 0) buffer.put((byte) ' ');
+            buffer.put(PackingPlan.isPicked(solution.packingPlan, i) ? (byte) '1' : (byte) '0');
+        }
+        put((byte) '\n');
+
+        put((byte) '\n');
+    }
+
+    /**
+     * write the line with time and profit of the solution
+     */
+    public void writeObjectives(Solution solution) throws IOException {
+        writeDecimal(solution.time);
+        put((byte) ' ');
+        writeDecimal(solution.profit);
+        put((byte) '\n');
+    }
+
+    /**
+     * Write the value with PRECISION decimals. Like the Formatter the shortest decimal digits which
+     * represent the double (the ones of Double.toString) are rounded half up, so the output is the
+     * same as the one of %.16f.
+     */
+    private void writeDecimal(double value) throws IOException {
+        if (Double.isNaN(value)) {
+            putAscii("NaN");
+            return;
+        }
+        if (Double.compare(value, 0.0) < 0) put((byte) '-');
+        value = Math.abs(value);
+        if (Double.isInfinite(value)) {
+            putAscii("Infinity");
+            return;
+        }
+
+        // the value is 0.d1 d2 ... dn * 10^exponent - parse it from the shortest representation
+        text.setLength(0);
+        text.append(value);
+        int n = 0;
+        int exponent = 0;
+        boolean isFraction = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '.') {
+                isFraction = true;
+            } else if (c == 'E') {
+                exponent += Integer.parseInt(text.substring(i + 1));
+                break;
+            } else if (n == 0 && c == '0') {
+                // leading zeros only shift the decimal point
+                if (isFraction) exponent--;
+            } else {
+                digits[n++] = (byte) c;
+                if (!isFraction) exponent++;
+            }
+        }
+
+        // round half up to the last decimal - if no digit is kept the first one decides
+        int kept = exponent + PRECISION;
+        if (kept < 0) {
+            n = 0;
+        } else if (kept < n) {
+            boolean isRoundedUp = digits[kept] >= '5';
+            n = kept;
+            while (isRoundedUp && n > 0) {
+                if (digits[n - 1] == '9') {
+                    n--;
+                } else {
+                    digits[n - 1]++;
+                    isRoundedUp = false;
+                }
+            }
+            if (isRoundedUp) {
+                digits[0] = '1';
+                n = 1;
+                exponent++;
+            }
+        }
+
+        // integer part, decimal point and fraction - missing digits are zeros
+        if (exponent <= 0) {
+            put((byte) '0');
+        } else {
+            for (int i = 0; i < exponent; i++) put(i < n ? digits[i] : (byte) '0');
+        }
+        put((byte) '.');
+        for (int i = exponent; i < exponent + PRECISION; i++) put(i >= 0 && i < n ? digits[i] : (byte) '0');
+    }
+
+    private void putAscii(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) put((byte) s.charAt(i));
+    }
+
+    private void put(byte b) throws IOException {
+        if (!buffer.hasRemaining()) flush();
+        buffer.put(b);
+    }
+
+    private void putInt(int value) throws IOException {
+        if (buffer.remaining() < digits.length + 1) flush();
+        if (value < 0) {
+            if (value == Integer.MIN_VALUE) {
+                buffer.put(Integer.toString(value).getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        while (n > 0) buffer.put(digits[--n]);
+    }
+
+    /**
+     * write the buffer to the file
+     */
+    private void flush() throws IOException {
+        ((Buffer) buffer).flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        ((Buffer) buffer).clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+}
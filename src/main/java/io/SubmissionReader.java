@@ -0,0 +1,91 @@
+package io;
+
+import model.PackingPlan;
+import model.Solution;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+
+/**
+ * Reads the solutions of a submission one after another from the variable file (.x) and the
+ * objective file (.f) - see SolutionWriter for the format. Both files are memory-mapped and
+ * tokenized on the bytes. Tokens in the variable file can be separated by blanks or commas.
+ *
+ * The cities of a tour are numbered from 1 if the tour starts with city 1, otherwise they are
+ * taken as they are. The time and profit reported in the objective file are stored in the solution,
+ * or NaN if the objective file has less lines than solutions.
+ */
+public class SubmissionReader {
+
+    // ! the variable file
+    private final ByteScanner variables;
+
+    // ! the objective file
+    private final ByteScanner objectives;
+
+    // ! buffer for the cities of a tour
+    private int[] tour = new int[1024];
+
+    // ! buffer for the packing plan
+    private long[] packingPlan = new long[16];
+
+    // ! number of solutions read so far
+    private int counter = 0;
+
+    public SubmissionReader(Path variableFile, Path objectiveFile) throws IOException {
+        this.variables = new ByteScanner(ByteScanner.map(variableFile), true);
+        this.objectives = new ByteScanner(ByteScanner.map(objectiveFile), false);
+    }
+
+    /**
+     * @return the next solution of the submission or null if all solutions are read
+     */
+    public Solution next() {
+
+        if (!variables.skipEmptyLines()) return null;
+
+        // the tour
+        int numOfCities = 0;
+        while (variables.hasToken()) {
+            if (numOfCities == tour.length) tour = Arrays.copyOf(tour, tour.length << 1);
+            tour[numOfCities++] = variables.parseInt();
+        }
+        variables.skipLine();
+
+        if (numOfCities > 0 && tour[0] == 1) {
+            for (int i = 0; i < numOfCities; i++) tour[i]--;
+        }
+
+        // the packing plan directly follows the tour
+        if (!variables.hasRemaining())
+            throw new RuntimeException(String.format("Packing plan of solution %s is missing.", counter));
+        int numOfItems = 0;
+        Arrays.fill(packingPlan, 0L);
+        while (variables.hasToken()) {
+            if (PackingPlan.words(numOfItems + 1) > packingPlan.length)
+                packingPlan = Arrays.copyOf(packingPlan, packingPlan.length << 1);
+            if (variables.nextTokenIs('1')) PackingPlan.set(packingPlan, numOfItems, true);
+            numOfItems++;
+        }
+        variables.skipLine();
+
+        Solution s = new Solution(Arrays.copyOf(tour, numOfCities),
+                Arrays.copyOf(packingPlan, PackingPlan.words(numOfItems)), numOfItems);
+
+        // the reported objective values
+        if (objectives.skipEmptyLines()) {
+            s.time = objectives.parseDouble();
+            s.profit = objectives.parseDouble();
+            objectives.skipLine();
+        } else {
+            s.time = Double.NaN;
+            s.profit = Double.NaN;
+        }
+
+        counter++;
+        return s;
+    }
+
+}
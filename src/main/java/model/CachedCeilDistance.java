@@ -0,0 +1,74 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Distance provider for large problems where the full matrix does not fit into memory. The rounded
+ * up distances are computed on demand and stored in a direct-mapped cache keyed by the edge. If two
+ * edges are mapped to the same slot the newer one replaces the older one, so the memory stays
+ * bounded.
+ *
+ * Each slot stores the edge and its distance in one long value, which makes concurrent lookups and
+ * updates safe without any locking.
+ */
+public class CachedCeilDistance implements DistanceProvider {
+
+	// ! maximal number of slots per city - more would not be used by a reasonable population
+	private static final int MAX_SLOTS_PER_CITY = 64;
+
+	// ! the problem to calculate the euclidean distances
+	private final TravelingThiefProblem problem;
+
+	// ! number of cities to build the key of an edge
+	private final int numOfCities;
+
+	// ! the cache slots - (key + 1) in the upper and distance in the lower 32 bits, 0 if empty
+	private final AtomicLongArray slots;
+
+	// ! mask to map a hash to a slot
+	private final int mask;
+
+	public CachedCeilDistance(TravelingThiefProblem problem, long memoryBudget) {
+
+		if ((long) problem.numOfCities * problem.numOfCities > Integer.MAX_VALUE)
+			throw new RuntimeException("Too many cities to build the distance cache.");
+
+		this.problem = problem;
+		this.numOfCities = problem.numOfCities;
+
+		// the number of slots is a power of two bounded by the memory budget
+		long capacity = Math.min(memoryBudget / 8, (long) MAX_SLOTS_PER_CITY * numOfCities);
+		capacity = Math.max(Long.highestOneBit(Math.min(capacity, 1 << 30)), 1024);
+
+		this.slots = new AtomicLongArray((int) capacity);
+		this.mask = (int) capacity - 1;
+
+	}
+
+	@Override
+	public double distance(int a, int b) {
+
+		if (a == b)
+			return 0;
+
+		// the distance is symmetric - use the smaller city first for the key
+		int key = a < b ? a * numOfCities + b : b * numOfCities + a;
+		int slot = hash(key) & mask;
+
+		long entry = slots.get(slot);
+		if ((int) (entry >>> 32) == key + 1)
+			return (int) entry;
+
+		double distance = Math.ceil(problem.euclideanDistance(a, b));
+		if (distance <= Integer.MAX_VALUE)
+			slots.lazySet(slot, ((long) (key + 1) << 32) | ((int) distance & 0xFFFFFFFFL));
+
+		return distance;
+	}
+
+	private static int hash(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+}
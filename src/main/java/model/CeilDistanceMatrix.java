@@ -0,0 +1,59 @@
+package model;
+
+/**
+ * Distance provider with a full precomputed matrix of the rounded up distances. Only suitable for
+ * small problems, because the memory grows quadratically with the number of cities. Distances
+ * which do not fit into an int are marked in the matrix and computed again when requested.
+ */
+public class CeilDistanceMatrix implements DistanceProvider {
+
+	// ! marks a distance which is too large to be stored
+	private static final int TOO_LARGE = -1;
+
+	// ! the problem to calculate distances which are not stored
+	private final TravelingThiefProblem problem;
+
+	// ! number of cities - length of a row in the matrix
+	private final int numOfCities;
+
+	// ! the distances stored row by row
+	private final int[] matrix;
+
+	public CeilDistanceMatrix(TravelingThiefProblem problem) {
+
+		// an array has at most Integer.MAX_VALUE entries
+		long entries = (long) problem.numOfCities * problem.numOfCities;
+		if (entries > Integer.MAX_VALUE)
+			throw new RuntimeException("Too many cities for a distance matrix: " + problem.numOfCities);
+
+		this.problem = problem;
+		this.numOfCities = problem.numOfCities;
+		this.matrix = new int[(int) entries];
+
+		for (int a = 0; a < numOfCities; a++) {
+			for (int b = a + 1; b < numOfCities; b++) {
+				double distance = Math.ceil(problem.euclideanDistance(a, b));
+				int value = distance <= Integer.MAX_VALUE ? (int) distance : TOO_LARGE;
+				this.matrix[a * numOfCities + b] = value;
+				this.matrix[b * numOfCities + a] = value;
+			}
+		}
+
+	}
+
+	/**
+	 * @return the number of bytes used by the matrix for the given number of cities - Long.MAX_VALUE
+	 *         if the matrix would have more than Integer.MAX_VALUE entries and can not be created
+	 */
+	public static long memoryUsage(int numOfCities) {
+		long entries = (long) numOfCities * numOfCities;
+		return entries <= Integer.MAX_VALUE ? 4 * entries : Long.MAX_VALUE;
+	}
+
+	@Override
+	public double distance(int a, int b) {
+		int distance = matrix[a * numOfCities + b];
+		return distance != TOO_LARGE ? distance : Math.ceil(problem.euclideanDistance(a, b));
+	}
+
+}
@@ -0,0 +1,138 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Thread-safe non-dominated set for searches which run on several threads.
+ *
+ * Besides the set itself an immutable snapshot of the current front is published. A solution
+ * which is dominated by (or equal in design space to) an entry of the snapshot can be rejected
+ * without any locking: an entry is only removed from the set if a new entry dominates it, which
+ * then dominates the rejected solution as well. Only solutions passing this test are added under
+ * the lock, so after the front has settled most offers never block.
+ *
+ * Rejecting with an outdated snapshot is safe as well, so the snapshot is not copied after every
+ * insertion but only once the set has changed by a fraction of its size. This keeps the copying
+ * cost constant per insertion even for large fronts.
+ *
+ */
+public class ConcurrentNonDominatedSet {
+
+    //! the non-dominated set - only modified while holding the lock of this object
+    private final NonDominatedSet set = new NonDominatedSet();
+
+    //! snapshot of the entries sorted by time - can miss the latest insertions
+    private volatile Snapshot snapshot = new Snapshot(new Solution[0]);
+
+    //! insertions since the snapshot was taken - only accessed while holding the lock
+    private int numOfChanges = 0;
+
+    /**
+     * Add a solution to the non-dominated set. Can be called by several threads at the same time.
+     * @param s The solution to be added.
+     * @return true if the solution was indeed added. Otherwise false.
+     */
+    public boolean add(Solution s) {
+
+        // fast path - reject without locking
+        if (snapshot.rejects(s)) return false;
+
+        synchronized (this) {
+            boolean isAdded = set.add(s);
+            if (isAdded && ++numOfChanges > set.size() >> 4) publish();
+            return isAdded;
+        }
+
+    }
+
+    /**
+     * Test without locking if a solution with these objective values is dominated by the front. The
+     * test uses the latest snapshot, so it can miss a recently added solution and return false.
+     *
+     * @return true if a solution with these objective values would be dominated
+     */
+    public boolean isDominated(double time, double profit) {
+        return snapshot.isDominated(time, profit);
+    }
+
+    /**
+     * @return a consistent, unmodifiable snapshot of the entries sorted by time
+     */
+    public synchronized List<Solution> snapshot() {
+        if (numOfChanges > 0) publish();
+        return Collections.unmodifiableList(Arrays.asList(snapshot.entries));
+    }
+
+    /**
+     * @return the number of solutions in the set
+     */
+    public synchronized int size() {
+        return set.size();
+    }
+
+    /**
+     * copy the entries of the set to a new snapshot - only called while holding the lock
+     */
+    private void publish() {
+        snapshot = new Snapshot(set.entries.toArray(new Solution[0]));
+        numOfChanges = 0;
+    }
+
+    /**
+     * Immutable copy of the front with the objective values in primitive arrays for fast lookups.
+     */
+    private static class Snapshot {
+
+        private final Solution[] entries;
+
+        private final double[] time;
+
+        private final double[] profit;
+
+        Snapshot(Solution[] entries) {
+            this.entries = entries;
+            this.time = new double[entries.length];
+            this.profit = new double[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                time[i] = entries[i].time;
+                profit[i] = entries[i].profit;
+            }
+        }
+
+        /**
+         * @return the last index with a time not greater than the given one or -1
+         */
+        private int floor(double t) {
+            int low = 0;
+            int high = time.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (time[middle] <= t) low = middle + 1;
+                else high = middle;
+            }
+            return low - 1;
+        }
+
+        boolean isDominated(double t, double p) {
+            int i = floor(t);
+            return i >= 0 && profit[i] >= p && (time[i] < t || profit[i] > p);
+        }
+
+        boolean rejects(Solution s) {
+            int i = floor(s.time);
+            if (i < 0) return false;
+            if (profit[i] >= s.profit && (time[i] < s.time || profit[i] > s.profit)) return true;
+
+            // equal in objective space - reject only if equal in design space
+            for (; i >= 0 && time[i] == s.time && profit[i] == s.profit; i--) {
+                if (s.equalsInDesignSpace(entries[i])) return true;
+            }
+            return false;
+        }
+
+    }
+
+}
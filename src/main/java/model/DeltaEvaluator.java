@@ -0,0 +1,239 @@
+package model;
+
+/**
+ * Incremental evaluation of a tour and packing plan. The evaluator keeps the state of the thief
+ * at each position of the tour (weight, profit, time and the time needed for each edge). This
+ * allows to evaluate a reversal of a part of the tour or the flip of an item without simulating
+ * the whole tour again: the unchanged prefix is taken from the stored state and as soon as the
+ * thief is in the same state as before, the stored edge times are reused.
+ *
+ * The results are exactly the same as the ones of TravelingThiefProblem.evaluate, because the
+ * values are accumulated in the same order. An evaluator holds mutable state and must not be
+ * shared between threads.
+ */
+public class DeltaEvaluator {
+
+	// ! the problem to be evaluated
+	private final TravelingThiefProblem problem;
+
+	// ! the items of each city
+	private final ItemIndex index;
+
+	// ! the current tour
+	private final int[] pi;
+
+	// ! the current packing plan
+	private final long[] z;
+
+	// ! position of each city in the tour
+	private final int[] position;
+
+	// ! weight of the knapsack after picking the items at each position
+	private final double[] weight;
+
+	// ! profit after picking the items at each position
+	private final double[] profit;
+
+	// ! time needed for the edge starting at each position
+	private final double[] edgeTime;
+
+	// ! time before leaving each position - the last one is the time of the whole tour
+	private final double[] timeBefore;
+
+	// ! the objective values of the current tour and packing plan
+	private final EvaluationResult current = new EvaluationResult();
+
+	public DeltaEvaluator(TravelingThiefProblem problem) {
+		this.problem = problem;
+		this.index = problem.getItemIndex();
+		this.pi = new int[problem.numOfCities];
+		this.z = PackingPlan.create(problem.numOfItems);
+		this.position = new int[problem.numOfCities];
+		this.weight = new double[problem.numOfCities];
+		this.profit = new double[problem.numOfCities];
+		this.edgeTime = new double[problem.numOfCities];
+		this.timeBefore = new double[problem.numOfCities + 1];
+	}
+
+	/**
+	 * Start from a new tour and packing plan. Both are copied and the state at
+	 * each position is calculated.
+	 */
+	public void reset(int[] pi, long[] z) {
+
+		if (pi.length != this.pi.length || z.length != this.z.length) {
+			throw new RuntimeException("Wrong input for traveling thief evaluation!");
+		} else if (pi[0] != 0) {
+			throw new RuntimeException("Thief must start at city 0!");
+		}
+
+		System.arraycopy(pi, 0, this.pi, 0, pi.length);
+		System.arraycopy(z, 0, this.z, 0, z.length);
+		for (int i = 0; i < pi.length; i++) {
+			this.position[pi[i]] = i;
+		}
+
+		simulate(0, 0, 0, pi.length, true, current);
+	}
+
+	/**
+	 * Copy the objective values of the current tour and packing plan to result.
+	 */
+	public void evaluate(EvaluationResult result) {
+		result.time = current.time;
+		result.profit = current.profit;
+		result.singleObjective = current.singleObjective;
+	}
+
+	/**
+	 * Evaluate the tour where the positions [from, to) are reversed. The current
+	 * state is not modified.
+	 *
+	 * @param from first position to be reversed - the start city can not be moved
+	 * @param to   position after the last one to be reversed
+	 */
+	public void evaluateReversal(int from, int to, EvaluationResult result) {
+		checkReversal(from, to);
+		simulate(from - 1, from, to, to, false, result);
+	}
+
+	/**
+	 * Reverse the positions [from, to) of the tour and update the state.
+	 */
+	public void reverse(int from, int to) {
+		checkReversal(from, to);
+		for (int i = from, j = to - 1; i < j; i++, j--) {
+			int tmp = pi[i];
+			pi[i] = pi[j];
+			pi[j] = tmp;
+			position[pi[i]] = i;
+			position[pi[j]] = j;
+		}
+		simulate(from - 1, 0, 0, to, true, current);
+	}
+
+	/**
+	 * Evaluate the packing plan where the given item is flipped. The current state
+	 * is not modified.
+	 */
+	public void evaluateFlip(int item, EvaluationResult result) {
+		PackingPlan.flip(z, item);
+		int start = position[problem.cityOfItem[item]];
+		simulate(start, 0, 0, start + 1, false, result);
+		PackingPlan.flip(z, item);
+	}
+
+	/**
+	 * Flip the given item of the packing plan and update the state.
+	 */
+	public void flip(int item) {
+		PackingPlan.flip(z, item);
+		int start = position[problem.cityOfItem[item]];
+		simulate(start, 0, 0, start + 1, true, current);
+	}
+
+	/**
+	 * @return the current tour - must not be modified
+	 */
+	public int[] getTour() {
+		return pi;
+	}
+
+	/**
+	 * @return the current packing plan - must not be modified
+	 */
+	public long[] getPackingPlan() {
+		return z;
+	}
+
+	private void checkReversal(int from, int to) {
+		if (from < 1 || to < from || to > pi.length)
+			throw new RuntimeException("Wrong positions for reversing the tour!");
+	}
+
+	/**
+	 * Simulate the tour starting at the given position where the state before is
+	 * taken from the stored one. The positions [from, to) are visited in reverse
+	 * order. From position unchangedFrom on the tour and packing plan are the same
+	 * as the stored ones, so the stored edge times are reused as soon as the thief
+	 * arrives there in the same state. If update is true the stored state is
+	 * overwritten; this is only allowed without a reversal.
+	 */
+	private void simulate(int start, int from, int to, int unchangedFrom, boolean update, EvaluationResult result) {
+
+		final int n = pi.length;
+		final double maxWeight = problem.maxWeight;
+
+		double weight = start > 0 ? this.weight[start - 1] : 0;
+		double profit = start > 0 ? this.profit[start - 1] : 0;
+		double time = this.timeBefore[start];
+		boolean isFeasible = weight <= maxWeight;
+
+		// the stored state at the previous position before it was overwritten
+		double storedWeight = weight;
+		double storedProfit = profit;
+
+		int k = start;
+		for (; k < n; k++) {
+
+			// the rest of the tour is unchanged and the thief arrives in the same state
+			if (k >= unchangedFrom && weight == storedWeight && profit == storedProfit)
+				break;
+
+			if (!isFeasible && !update)
+				break;
+
+			int city = k >= from && k < to ? pi[from + to - 1 - k] : pi[k];
+
+			// pick the items in the same order as the full evaluation
+			for (int slot = index.begin(city), end = index.end(city); slot < end; slot++) {
+				if (PackingPlan.isPicked(z, index.item(slot))) {
+					weight += index.weight(slot);
+					profit += index.profit(slot);
+				}
+			}
+
+			if (weight > maxWeight)
+				isFeasible = false;
+
+			double speed = problem.maxSpeed - (weight / problem.maxWeight) * (problem.maxSpeed - problem.minSpeed);
+
+			int nextPosition = k + 1 == n ? 0 : k + 1;
+			int next = nextPosition >= from && nextPosition < to ? pi[from + to - 1 - nextPosition] : pi[nextPosition];
+			double edge = problem.distance(city, next) / speed;
+
+			time += edge;
+
+			storedWeight = this.weight[k];
+			storedProfit = this.profit[k];
+
+			if (update) {
+				this.weight[k] = weight;
+				this.profit[k] = profit;
+				this.edgeTime[k] = edge;
+				this.timeBefore[k + 1] = time;
+			}
+		}
+
+		// reuse the stored time of each remaining edge
+		if (k < n && (isFeasible || update)) {
+			for (; k < n; k++) {
+				time += this.edgeTime[k];
+				if (update)
+					this.timeBefore[k + 1] = time;
+			}
+			profit = this.profit[n - 1];
+			isFeasible = isFeasible && this.weight[n - 1] <= maxWeight;
+		}
+
+		if (!isFeasible) {
+			time = Double.MAX_VALUE;
+			profit = -Double.MAX_VALUE;
+		}
+
+		result.time = time;
+		result.profit = profit;
+		result.singleObjective = profit - problem.R * time;
+	}
+
+}
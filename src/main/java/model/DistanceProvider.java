@@ -0,0 +1,36 @@
+package model;
+
+/**
+ * Provides the CEIL_2D distance between two cities, i.e. the euclidean distance rounded up to the
+ * next integer. Depending on the size of the problem the distances are either precomputed in a
+ * matrix or computed on demand and kept in a bounded cache.
+ *
+ * Implementations must be safe to be used by several threads at the same time.
+ */
+public interface DistanceProvider {
+
+	// ! default amount of memory in bytes a distance provider is allowed to use
+	long DEFAULT_MEMORY_BUDGET = 64L << 20;
+
+	/**
+	 * @return the distance between city a and b rounded up to the next integer
+	 */
+	double distance(int a, int b);
+
+	/**
+	 * Create the distance provider which fits best for the problem. If the full
+	 * matrix of distances fits into the memory budget it is precomputed, otherwise
+	 * the distances are cached on demand.
+	 *
+	 * @param problem      the problem the distances are computed for
+	 * @param memoryBudget maximal number of bytes to be used
+	 */
+	static DistanceProvider create(TravelingThiefProblem problem, long memoryBudget) {
+		if (CeilDistanceMatrix.memoryUsage(problem.numOfCities) <= memoryBudget) {
+			return new CeilDistanceMatrix(problem);
+		} else {
+			return new CachedCeilDistance(problem, memoryBudget);
+		}
+	}
+
+}
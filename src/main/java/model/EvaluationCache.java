@@ -0,0 +1,191 @@
+package model;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of evaluation results in front of TravelingThiefProblem.evaluate. A genotype is
+ * identified by a 128 bit fingerprint of its tour and packing plan (two independent 64 bit hashes
+ * which depend on the order of the cities). The cache is set-associative: a fingerprint can only
+ * be stored in the ways of one set and the least recently used entry of the set is evicted.
+ *
+ * All data is kept in primitive arrays, so lookups do not create any objects. The parallel
+ * evaluation shares the cache: each set is guarded by one of STRIPES locks, so threads only wait
+ * for each other if their fingerprints map to sets of the same stripe.
+ */
+public class EvaluationCache {
+
+	// ! number of entries per set
+	private static final int WAYS = 8;
+
+	// ! maximal number of locks - set i is guarded by lock i % STRIPES
+	private static final int STRIPES = 64;
+
+	// ! multipliers of the two fingerprints
+	private static final long MULTIPLIER1 = 0x9E3779B97F4A7C15L;
+	private static final long MULTIPLIER2 = 0xC6A4A7935BD1E995L;
+
+	// ! both parts of the fingerprint of each entry
+	private final long[] key1;
+	private final long[] key2;
+
+	// ! the stored objective values of each entry
+	private final double[] time;
+	private final double[] profit;
+	private final double[] singleObjective;
+
+	// ! last access of each entry - 0 if the entry is empty
+	private final long[] lastUsed;
+
+	// ! mask to map a fingerprint to a set
+	private final int mask;
+
+	// ! the locks of the stripes and the mask to map a set to its stripe
+	private final Object[] locks;
+	private final int stripeMask;
+
+	// ! logical clock for the last access of each stripe - only compared within a set
+	private final long[] clock;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * @param capacity maximal number of cached evaluations - rounded up to a power of two
+	 */
+	public EvaluationCache(int capacity) {
+		int sets = Integer.highestOneBit(Math.max(1, (capacity + WAYS - 1) / WAYS - 1) << 1);
+		this.mask = sets - 1;
+		this.key1 = new long[sets * WAYS];
+		this.key2 = new long[sets * WAYS];
+		this.time = new double[sets * WAYS];
+		this.profit = new double[sets * WAYS];
+		this.singleObjective = new double[sets * WAYS];
+		this.lastUsed = new long[sets * WAYS];
+		this.locks = new Object[Math.min(sets, STRIPES)];
+		for (int i = 0; i < locks.length; i++)
+			locks[i] = new Object();
+		this.stripeMask = locks.length - 1;
+		this.clock = new long[locks.length];
+	}
+
+	/**
+	 * Calculate both parts of the fingerprint of a genotype in one pass.
+	 *
+	 * @param fingerprint array of length 2 where the two independent parts are written to
+	 */
+	public static void fingerprint(int[] pi, long[] z, long[] fingerprint) {
+		long h1 = MULTIPLIER1;
+		long h2 = MULTIPLIER2;
+		for (int city : pi) {
+			h1 = (h1 ^ city) * MULTIPLIER1;
+			h1 ^= h1 >>> 32;
+			h2 = (h2 ^ city) * MULTIPLIER2;
+			h2 ^= h2 >>> 32;
+		}
+		for (long word : z) {
+			h1 = (h1 ^ word) * MULTIPLIER1;
+			h1 ^= h1 >>> 32;
+			h2 = (h2 ^ word) * MULTIPLIER2;
+			h2 ^= h2 >>> 32;
+		}
+		fingerprint[0] = finish(h1);
+		fingerprint[1] = finish(h2);
+	}
+
+	private static long finish(long h) {
+		h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+		h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+		return h ^ (h >>> 31);
+	}
+
+	/**
+	 * Look up the objective values of a genotype.
+	 *
+	 * @return true if the genotype was found and the values are written to result
+	 */
+	public boolean lookup(long fingerprint1, long fingerprint2, EvaluationResult result) {
+		int set = (int) fingerprint1 & mask;
+		int first = set * WAYS;
+		int stripe = set & stripeMask;
+		synchronized (locks[stripe]) {
+			for (int i = first; i < first + WAYS; i++) {
+				if (lastUsed[i] != 0 && key1[i] == fingerprint1 && key2[i] == fingerprint2) {
+					lastUsed[i] = ++clock[stripe];
+					result.time = time[i];
+					result.profit = profit[i];
+					result.singleObjective = singleObjective[i];
+					hits.increment();
+					return true;
+				}
+			}
+		}
+		misses.increment();
+		return false;
+	}
+
+	/**
+	 * Store the objective values of a genotype. The least recently used entry of its
+	 * set is replaced.
+	 */
+	public void put(long fingerprint1, long fingerprint2, EvaluationResult result) {
+		int set = (int) fingerprint1 & mask;
+		int first = set * WAYS;
+		int stripe = set & stripeMask;
+		synchronized (locks[stripe]) {
+			int victim = first;
+			for (int i = first; i < first + WAYS; i++) {
+				if (lastUsed[i] != 0 && key1[i] == fingerprint1 && key2[i] == fingerprint2) {
+					victim = i;
+					break;
+				}
+				if (lastUsed[i] < lastUsed[victim])
+					victim = i;
+			}
+			if (lastUsed[victim] != 0 && (key1[victim] != fingerprint1 || key2[victim] != fingerprint2))
+				evictions.increment();
+
+			key1[victim] = fingerprint1;
+			key2[victim] = fingerprint2;
+			time[victim] = result.time;
+			profit[victim] = result.profit;
+			singleObjective[victim] = result.singleObjective;
+			lastUsed[victim] = ++clock[stripe];
+		}
+	}
+
+	/**
+	 * @return the maximal number of entries
+	 */
+	public int capacity() {
+		return lastUsed.length;
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * @return the fraction of lookups which were answered by the cache
+	 */
+	public double getHitRate() {
+		long hits = getHits();
+		long misses = getMisses();
+		return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("hits: %s, misses: %s, evictions: %s, hit rate: %.4f", getHits(), getMisses(),
+				getEvictions(), getHitRate());
+	}
+
+}
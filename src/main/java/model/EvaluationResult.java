@@ -0,0 +1,19 @@
+package model;
+
+/**
+ * Mutable holder for the objective values of an evaluation. It is filled by
+ * TravelingThiefProblem.evaluate(int[], long[], EvaluationResult) and can be reused for many
+ * evaluations to avoid creating a new object each time.
+ */
+public class EvaluationResult {
+
+	// ! the time the thief needed for traveling
+	public double time = -1.0;
+
+	// ! the profit the thief made on that tour
+	public double profit = -1.0;
+
+	// ! objective value if you want to solve the single-objective problem using R
+	public double singleObjective = -1.0;
+
+}
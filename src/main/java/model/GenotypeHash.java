@@ -0,0 +1,100 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Zobrist-style hash of a tour and packing plan. The hash is the XOR of a random key for each
+ * (undirected) edge of the tour and for each picked item. The keys are derived by mixing the edge
+ * or item index, so no table is necessary. Because of the XOR the hash can be updated when an item
+ * is flipped or a part of the tour is reversed without looking at the rest of the genotype.
+ *
+ * Equal genotypes always have the same hash, but a tour and its reverse share all edges and
+ * therefore the hash as well. The hash can only be used to find candidates for a full comparison.
+ */
+public final class GenotypeHash {
+
+	private static final long EDGE_SEED = 0x9E3779B97F4A7C15L;
+
+	private static final long ITEM_SEED = 0xC2B2AE3D27D4EB4FL;
+
+	private GenotypeHash() {
+	}
+
+	/**
+	 * @return the key of the undirected edge between city a and b
+	 */
+	public static long edge(int a, int b) {
+		long key = a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+		return mix(key ^ EDGE_SEED);
+	}
+
+	/**
+	 * @return the key of a picked item
+	 */
+	public static long item(int item) {
+		return mix(item ^ ITEM_SEED);
+	}
+
+	/**
+	 * @return the hash of a tour and packing plan given as lists
+	 */
+	public static long of(List<Integer> pi, List<Boolean> z) {
+		long hash = 0;
+		for (int i = 0; i < pi.size(); i++) {
+			hash ^= edge(pi.get(i), pi.get((i + 1) % pi.size()));
+		}
+		for (int i = 0; i < z.size(); i++) {
+			if (z.get(i))
+				hash ^= item(i);
+		}
+		return hash;
+	}
+
+	/**
+	 * @return the hash of a tour and a packing plan given as bitset
+	 */
+	public static long of(int[] pi, long[] z) {
+		long hash = 0;
+		for (int i = 0; i < pi.length; i++) {
+			hash ^= edge(pi[i], pi[(i + 1) % pi.length]);
+		}
+		for (int word = 0; word < z.length; word++) {
+			for (long bits = z[word]; bits != 0; bits &= bits - 1) {
+				hash ^= item((word << 6) + Long.numberOfTrailingZeros(bits));
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * Update the hash for reversing the positions [from, to) of the tour. Only the two
+	 * edges at the border of the reversed part change. Must be called before the tour
+	 * is reversed.
+	 */
+	public static long reverse(long hash, int[] pi, int from, int to) {
+		if (to - from < 2)
+			return hash;
+		int before = pi[from - 1];
+		int first = pi[from];
+		int last = pi[to - 1];
+		int after = pi[to % pi.length];
+		return hash ^ edge(before, first) ^ edge(last, after) ^ edge(before, last) ^ edge(first, after);
+	}
+
+	/**
+	 * Update the hash for flipping an item of the packing plan.
+	 */
+	public static long flip(long hash, int item) {
+		return hash ^ item(item);
+	}
+
+	/**
+	 * SplitMix64 finalizer - spreads the bits of the key over the whole hash.
+	 */
+	private static long mix(long key) {
+		key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+		key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+		return key ^ (key >>> 31);
+	}
+
+}
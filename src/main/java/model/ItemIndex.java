@@ -0,0 +1,128 @@
+package model;
+
+/**
+ * Read-only index of the items available at each city stored in a compressed sparse row layout.
+ * The items of city c are found in the slots begin(c) until end(c) (exclusive) and are sorted by
+ * their item index. Weight and profit are stored in the same city-grouped order, which makes it
+ * cheap to walk along a tour and look at all items of the visited cities.
+ */
+public final class ItemIndex {
+
+	// ! offsets into the slot arrays - the items of city c are in [offset[c], offset[c + 1])
+	private final int[] offset;
+
+	// ! the item index stored in each slot
+	private final int[] item;
+
+	// ! the weight of the item in each slot
+	private final double[] weight;
+
+	// ! the profit of the item in each slot
+	private final double[] profit;
+
+	/**
+	 * Build the index by grouping the items by their city (stable counting sort).
+	 */
+	public ItemIndex(int numOfCities, int[] cityOfItem, double[] weight, double[] profit) {
+
+		this.offset = new int[numOfCities + 1];
+		this.item = new int[cityOfItem.length];
+		this.weight = new double[cityOfItem.length];
+		this.profit = new double[cityOfItem.length];
+
+		// count the items of each city and make the counts cumulative
+		for (int city : cityOfItem) {
+			this.offset[city + 1]++;
+		}
+		for (int c = 0; c < numOfCities; c++) {
+			this.offset[c + 1] += this.offset[c];
+		}
+
+		// fill the slots - items are visited in increasing order and keep it in each city
+		int[] next = new int[numOfCities];
+		System.arraycopy(this.offset, 0, next, 0, numOfCities);
+		for (int i = 0; i < cityOfItem.length; i++) {
+			int slot = next[cityOfItem[i]]++;
+			this.item[slot] = i;
+			this.weight[slot] = weight[i];
+			this.profit[slot] = profit[i];
+		}
+
+	}
+
+	/**
+	 * Use an index which was built before, e.g. stored with the problem. The
+	 * offsets and items are validated against the city of each item.
+	 *
+	 * @param offset the first slot of each city and the number of items at the end
+	 * @param item   the item index of each slot
+	 */
+	public ItemIndex(int[] offset, int[] item, int[] cityOfItem, double[] weight, double[] profit) {
+
+		if (offset.length == 0 || offset[0] != 0 || offset[offset.length - 1] != item.length
+				|| item.length != cityOfItem.length)
+			throw new RuntimeException("Item index does not match the items of the problem.");
+
+		this.offset = offset;
+		this.item = item;
+		this.weight = new double[item.length];
+		this.profit = new double[item.length];
+
+		for (int c = 0; c < offset.length - 1; c++) {
+			if (offset[c] > offset[c + 1])
+				throw new RuntimeException("Item index does not match the items of the problem.");
+			for (int slot = offset[c]; slot < offset[c + 1]; slot++) {
+				int i = item[slot];
+				if (i < 0 || i >= cityOfItem.length || cityOfItem[i] != c
+						|| (slot > offset[c] && item[slot - 1] >= i))
+					throw new RuntimeException("Item index does not match the items of the problem.");
+				this.weight[slot] = weight[i];
+				this.profit[slot] = profit[i];
+			}
+		}
+
+	}
+
+	/**
+	 * @return the first slot of the items at the city
+	 */
+	public int begin(int city) {
+		return offset[city];
+	}
+
+	/**
+	 * @return the slot after the last item at the city
+	 */
+	public int end(int city) {
+		return offset[city + 1];
+	}
+
+	/**
+	 * @return the number of items at the city
+	 */
+	public int numOfItemsAt(int city) {
+		return offset[city + 1] - offset[city];
+	}
+
+	/**
+	 * @return the item index stored in the slot
+	 */
+	public int item(int slot) {
+		return item[slot];
+	}
+
+	/**
+	 * @return the weight of the item stored in the slot
+	 */
+	public double weight(int slot) {
+		return weight[slot];
+	}
+
+	/**
+	 * @return the profit of the item stored in the slot
+	 */
+	public double profit(int slot) {
+		return profit[slot];
+	}
+
+}
@@ -1,19 +1,35 @@
 package model;
 
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
 
 
 /**
- * This is an example implementation of a non-dominated set. It updates the set whenever new
- * solutions are added.
+ * This is an implementation of a non-dominated set for the two objectives time and profit. It
+ * updates the set whenever new solutions are added.
+ *
+ * In a non-dominated set the profit increases with the time (a staircase). The entries are kept
+ * sorted by time, so a new solution only has to be compared with the entry having the largest time
+ * not greater than its own, and the entries it dominates directly follow it. Adding a solution
+ * costs O(log n + k) where k is the number of removed entries.
  *
  */
 public class NonDominatedSet {
 
-    //! entries of the non-dominated set
-    public List<Solution> entries = new LinkedList<>();
+    //! entries of the non-dominated set sorted by time - read-only view without indexed access
+    public final Collection<Solution> entries = new EntriesView();
+
+    //! solutions by time - all solutions of one group have the same objective values
+    private final TreeMap<Double, List<Solution>> front = new TreeMap<>();
+
+    //! number of solutions in the set
+    private int size = 0;
 
     /**
      * Add a solution to the non-dominated set
@@ -22,24 +38,103 @@ public class NonDominatedSet {
      */
     public boolean add(Solution s) {
 
-        boolean isAdded = true;
-
-        for (Iterator<Solution> it = entries.iterator(); it.hasNext();) {
-            Solution other = it.next();
+        // the entry with the largest time not greater than the one of s has the best profit of all
+        // entries which could dominate s
+        Map.Entry<Double, List<Solution>> floor = front.floorEntry(s.time);
+        if (floor != null) {
+            List<Solution> group = floor.getValue();
+            Solution other = group.get(0);
 
             int rel = s.getRelation(other);
 
-            // if dominated by or equal in design space
-            if (rel == -1 || (rel == 0 && s.equalsInDesignSpace(other))) {
-                isAdded = false;
-                break;
-            } else if (rel == 1) it.remove();
+            // if dominated by
+            if (rel == -1) return false;
 
+            // if equal in objective space keep it unless it is equal in design space
+            if (other.time == s.time && other.profit == s.profit) {
+                for (Solution same : group) {
+                    if (s.equalsInDesignSpace(same)) return false;
+                }
+                group.add(s);
+                size++;
+                return true;
+            }
         }
 
-        if (isAdded) entries.add(s);
+        // remove the entries dominated by s - they follow s directly
+        for (Iterator<List<Solution>> it = front.tailMap(s.time, true).values().iterator(); it.hasNext();) {
+            List<Solution> group = it.next();
+            if (group.get(0).profit > s.profit) break;
+            size -= group.size();
+            it.remove();
+        }
+
+        List<Solution> group = new ArrayList<>(1);
+        group.add(s);
+        front.put(s.time, group);
+        size++;
+
+        return true;
 
-        return isAdded;
+    }
+
+    /**
+     * Test if a solution with the given objective values would be dominated by the set - allows to
+     * reject a genotype before a solution is created for it.
+     *
+     * @return true if a solution with these objective values is dominated by an entry
+     */
+    public boolean isDominated(double time, double profit) {
+        Map.Entry<Double, List<Solution>> floor = front.floorEntry(time);
+        if (floor == null) return false;
+        Solution other = floor.getValue().get(0);
+        return other.profit >= profit && (other.time < time || other.profit > profit);
+    }
+
+    /**
+     * @return the number of solutions in the set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Read-only collection of all solutions in the order of increasing time. It has no get(int)
+     * because the solutions can only be reached by walking the tree - copy it into a list for
+     * random access.
+     */
+    private class EntriesView extends AbstractCollection<Solution> {
+
+        @Override
+        public Iterator<Solution> iterator() {
+            return new Iterator<Solution>() {
+
+                private final Iterator<List<Solution>> groups = front.values().iterator();
+                private List<Solution> group = null;
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return (group != null && next < group.size()) || groups.hasNext();
+                }
+
+                @Override
+                public Solution next() {
+                    if (group == null || next >= group.size()) {
+                        if (!groups.hasNext()) throw new NoSuchElementException();
+                        group = groups.next();
+                        next = 0;
+                    }
+                    return group.get(next++);
+                }
+
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
 
     }
 
@@ -0,0 +1,60 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Helper functions for a packing plan stored as a bitset. Item i is picked if bit (i % 64) of the
+ * word z[i / 64] is set. This representation is used by the allocation-free evaluation of the
+ * problem.
+ */
+public final class PackingPlan {
+
+	private PackingPlan() {
+	}
+
+	/**
+	 * @param numOfItems number of items of the problem
+	 * @return the number of words necessary to store a packing plan
+	 */
+	public static int words(int numOfItems) {
+		return (numOfItems + 63) >>> 6;
+	}
+
+	/**
+	 * @return an empty packing plan for the given number of items
+	 */
+	public static long[] create(int numOfItems) {
+		return new long[words(numOfItems)];
+	}
+
+	/**
+	 * @return true if the item is picked in the packing plan
+	 */
+	public static boolean isPicked(long[] z, int item) {
+		return (z[item >>> 6] & (1L << item)) != 0;
+	}
+
+	public static void set(long[] z, int item, boolean value) {
+		if (value)
+			z[item >>> 6] |= 1L << item;
+		else
+			z[item >>> 6] &= ~(1L << item);
+	}
+
+	public static void flip(long[] z, int item) {
+		z[item >>> 6] ^= 1L << item;
+	}
+
+	/**
+	 * Convert a packing plan given as a list into a bitset
+	 */
+	public static long[] of(List<Boolean> z) {
+		long[] bits = create(z.size());
+		for (int i = 0; i < z.size(); i++) {
+			if (z.get(i))
+				bits[i >>> 6] |= 1L << i;
+		}
+		return bits;
+	}
+
+}
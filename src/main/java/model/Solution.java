@@ -1,18 +1,35 @@
 package model;
 
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * This is a solution objective which stores the tour, packing plan and the
  * objective values.
+ *
+ * The tour and packing plan are stored in primitive arrays (the packing plan as
+ * bitset, see PackingPlan). The lists pi, z and objectives are views on these
+ * values for code which works with lists - changes through the views are
+ * written to the arrays.
  */
 public class Solution {
 
 	// ! the tour of the thief
-	public List<Integer> pi;
+	public final int[] tour;
 
-	// ! the packing plan
-	public List<Boolean> z;
+	// ! the packing plan as bitset
+	public final long[] packingPlan;
+
+	// ! number of items in the packing plan
+	public final int numOfItems;
+
+	// ! the tour of the thief - view on tour
+	public final List<Integer> pi = new TourView();
+
+	// ! the packing plan - view on packingPlan
+	public final List<Boolean> z = new PackingPlanView();
 
 	// ! the time the thief needed for traveling
 	public double time = -1.0;
@@ -23,8 +40,8 @@ public class Solution {
 	// ! objective value if you want to solve the single-objective problem using R
 	public double singleObjective = -1.0;
 
-	// ! the objective values of the function
-	public List<Double> objectives;
+	// ! the objective values of the function (time and negative profit) - view on time and profit
+	public final List<Double> objectives = new ObjectivesView();
 
 	// The rank of the solution
 	public int rank = Integer.MAX_VALUE;
@@ -32,32 +49,66 @@ public class Solution {
 	// Crowding Distance of the solution
 	public double crowdingDistance;
 
-	public Double normalizedTime;
+	public double normalizedTime;
 
-	public Double normalizedProfit;
+	public double normalizedProfit;
 
 	public int index;
 
+	// ! hash of tour and packing plan (see GenotypeHash) - only maintained by algorithms which use it
+	public long genotypeHash;
+
+	/**
+	 * @param tour        the tour - stored by reference
+	 * @param packingPlan the packing plan as bitset - stored by reference
+	 * @param numOfItems  the number of items of the packing plan
+	 */
+	public Solution(int[] tour, long[] packingPlan, int numOfItems) {
+		this.tour = tour;
+		this.packingPlan = packingPlan;
+		this.numOfItems = numOfItems;
+	}
+
 	/**
-	 * This is used for non-dominated sorting and returns the dominance relation
-	 * 
+	 * @return a copy with its own tour and packing plan
+	 */
+	public Solution copy() {
+		Solution s = new Solution(tour.clone(), packingPlan.clone(), numOfItems);
+		s.time = time;
+		s.profit = profit;
+		s.singleObjective = singleObjective;
+		s.rank = rank;
+		s.crowdingDistance = crowdingDistance;
+		s.normalizedTime = normalizedTime;
+		s.normalizedProfit = normalizedProfit;
+		s.index = index;
+		s.genotypeHash = genotypeHash;
+		return s;
+	}
+
+	/**
+	 * This is used for non-dominated sorting and returns the dominance relation.
+	 * The objectives are the time and the negative profit.
+	 *
 	 * @param other solution to compare with
 	 * @return returns 1 if dominates, -1 if dominated and 0 if indifferent
 	 */
 	public int getRelation(Solution other) {
 		int val = 0;
-		for (int i = 0; i < objectives.size(); i++) {
-
-			if (objectives.get(i) < other.objectives.get(i)) {
-				if (val == -1)
-					return 0;
-				val = 1;
-			} else if (objectives.get(i) > other.objectives.get(i)) {
-				if (val == 1)
-					return 0;
-				val = -1;
-			}
 
+		if (time < other.time)
+			val = 1;
+		else if (time > other.time)
+			val = -1;
+
+		if (profit > other.profit) {
+			if (val == -1)
+				return 0;
+			val = 1;
+		} else if (profit < other.profit) {
+			if (val == 1)
+				return 0;
+			val = -1;
 		}
 
 		return val;
@@ -69,7 +120,7 @@ public class Solution {
 	 * @return True if tour and packing plan is equal
 	 */
 	public boolean equalsInDesignSpace(Solution other) {
-		return pi.equals(other.pi) && z.equals(other.z);
+		return Arrays.equals(tour, other.tour) && Arrays.equals(packingPlan, other.packingPlan);
 	}
 
 	public int getRank() {
@@ -80,6 +131,71 @@ public class Solution {
 		this.rank = rank;
 	}
 
-	
+	private class TourView extends AbstractList<Integer> implements RandomAccess {
+
+		@Override
+		public Integer get(int index) {
+			return tour[index];
+		}
+
+		@Override
+		public Integer set(int index, Integer city) {
+			int previous = tour[index];
+			tour[index] = city;
+			return previous;
+		}
+
+		@Override
+		public int size() {
+			return tour.length;
+		}
+
+	}
+
+	private class PackingPlanView extends AbstractList<Boolean> implements RandomAccess {
+
+		@Override
+		public Boolean get(int index) {
+			checkIndex(index);
+			return PackingPlan.isPicked(packingPlan, index);
+		}
+
+		@Override
+		public Boolean set(int index, Boolean isPicked) {
+			checkIndex(index);
+			boolean previous = PackingPlan.isPicked(packingPlan, index);
+			PackingPlan.set(packingPlan, index, isPicked);
+			return previous;
+		}
+
+		@Override
+		public int size() {
+			return numOfItems;
+		}
+
+		private void checkIndex(int index) {
+			if (index < 0 || index >= numOfItems)
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + numOfItems);
+		}
+
+	}
+
+	private class ObjectivesView extends AbstractList<Double> implements RandomAccess {
+
+		@Override
+		public Double get(int index) {
+			if (index == 0)
+				return time;
+			else if (index == 1)
+				return -profit;
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: 2");
+		}
+
+		@Override
+		public int size() {
+			return 2;
+		}
+
+	}
 
 }
@@ -1,9 +1,9 @@
 package model;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * This class represents the main problem to be solved. It stores all variables
@@ -11,6 +11,11 @@ import java.util.List;
  *
  * Either define the problem by yourself or load it from a file.
  *
+ * After initialize() was called the problem is only read by the evaluation
+ * functions. All data structures used by them are either immutable or safe for
+ * concurrent access, therefore solutions can be evaluated by several threads at
+ * the same time as long as the public fields are not modified anymore.
+ *
  */
 public class TravelingThiefProblem {
 
@@ -47,26 +52,141 @@ public class TravelingThiefProblem {
 	// ! the profit of each item
 	public double[] profit;
 
-	// ! used for faster evaluation
-	private List<LinkedList<Integer>> itemsAtCity = null;
+	// ! items grouped by their city - used for faster evaluation
+	private ItemIndex itemIndex = null;
+
+	// ! provides the rounded up distances between cities
+	private DistanceProvider distanceProvider = null;
+
+	// ! optional cache of evaluation results
+	private EvaluationCache evaluationCache = null;
+
+	// ! pool used to evaluate several solutions in parallel
+	private ForkJoinPool evaluationPool = ForkJoinPool.commonPool();
 
 	/**
 	 * Initialize the problem by saving for each city the items to pick
 	 */
 	public void initialize() {
+		initialize(null);
+	}
+
+	/**
+	 * Initialize the problem with an index of the items at each city which was
+	 * built before - if it is null the index is built.
+	 */
+	public void initialize(ItemIndex itemIndex) {
 
 		// make the checks to avoid wrong parameters for the problem
 		if (numOfCities == -1 || numOfItems == -1 || minSpeed == -1 || maxSpeed == -1 || maxWeight == -1
 				|| R == Double.POSITIVE_INFINITY)
 			throw new RuntimeException("Error while loading problem. Some variables are not initialized");
 
-		// initialize the itemsAtCity data structure
-		this.itemsAtCity = new ArrayList<>(this.numOfCities);
-		for (int i = 0; i < this.numOfCities; i++) {
-			this.itemsAtCity.add(new LinkedList<>());
+		// initialize the index of items at each city
+		this.itemIndex = itemIndex != null ? itemIndex
+				: new ItemIndex(this.numOfCities, this.cityOfItem, this.weight, this.profit);
+
+		// precompute the distances if possible - otherwise they are cached on demand
+		this.distanceProvider = DistanceProvider.create(this, DistanceProvider.DEFAULT_MEMORY_BUDGET);
+
+	}
+
+	/**
+	 * @return the read-only index of the items at each city
+	 */
+	public ItemIndex getItemIndex() {
+		return itemIndex;
+	}
+
+	/**
+	 * @return the provider used for all distance calculations
+	 */
+	public DistanceProvider getDistanceProvider() {
+		return distanceProvider;
+	}
+
+	/**
+	 * Replace the provider of the distances, e.g. to use a different memory budget.
+	 */
+	public void setDistanceProvider(DistanceProvider distanceProvider) {
+		this.distanceProvider = distanceProvider;
+	}
+
+	/**
+	 * @return the CEIL_2D distance between city a and b
+	 */
+	public double distance(int a, int b) {
+		return distanceProvider.distance(a, b);
+	}
+
+	/**
+	 * @return the cache in front of the evaluation or null if none is used
+	 */
+	public EvaluationCache getEvaluationCache() {
+		return evaluationCache;
+	}
+
+	/**
+	 * Put a cache in front of the evaluation. Repeated evaluations of the same tour
+	 * and packing plan are then answered by the cache. Set null to disable it.
+	 */
+	public void setEvaluationCache(EvaluationCache evaluationCache) {
+		this.evaluationCache = evaluationCache;
+	}
+
+	/**
+	 * Set the pool which is used by evaluateAll, e.g. to limit the number of
+	 * threads.
+	 */
+	public void setEvaluationPool(ForkJoinPool evaluationPool) {
+		this.evaluationPool = evaluationPool;
+	}
+
+	/**
+	 * Evaluate the tour and packing plan of several solutions in parallel.
+	 *
+	 * @param solutions the solutions providing pi and z to be evaluated
+	 * @param copy      see evaluate(pi,z,copy)
+	 * @return the evaluated solutions in the same order as the input
+	 */
+	public List<Solution> evaluateAll(List<Solution> solutions, boolean copy) {
+		Solution[] result = new Solution[solutions.size()];
+		evaluationPool.invoke(new EvaluateTask(solutions, copy, result, 0, result.length));
+		return Arrays.asList(result);
+	}
+
+	/**
+	 * Evaluates a range of solutions by splitting it until single solutions are
+	 * left.
+	 */
+	private class EvaluateTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<Solution> solutions;
+		private final boolean copy;
+		private final Solution[] result;
+		private final int from;
+		private final int to;
+
+		EvaluateTask(List<Solution> solutions, boolean copy, Solution[] result, int from, int to) {
+			this.solutions = solutions;
+			this.copy = copy;
+			this.result = result;
+			this.from = from;
+			this.to = to;
 		}
-		for (int i = 0; i < this.cityOfItem.length; i++) {
-			this.itemsAtCity.get(this.cityOfItem[i]).add(i);
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				Solution s = solutions.get(from);
+				result[from] = evaluate(s.tour, s.packingPlan, copy);
+			} else if (to - from > 1) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new EvaluateTask(solutions, copy, result, from, middle),
+						new EvaluateTask(solutions, copy, result, middle, to));
+			}
 		}
 
 	}
@@ -83,6 +203,32 @@ public class TravelingThiefProblem {
 	 * 
 	 * @param pi   the tour
 	 * @param z    the packing plan
+	 * @param copy kept for compatibility - the solution stores the tour and packing
+	 *             plan in its own arrays, so it never references the lists
+	 *
+	 * @return A solution objective containing
+	 */
+	public Solution evaluate(List<Integer> pi, List<Boolean> z, boolean copy) {
+
+		if (pi.size() != this.numOfCities || z.size() != this.numOfItems) {
+			throw new RuntimeException("Wrong input for traveling thief evaluation!");
+		}
+
+		// convert the tour and packing plan to the primitive representation
+		int[] tour = new int[this.numOfCities];
+		for (int i = 0; i < this.numOfCities; i++) {
+			tour[i] = pi.get(i);
+		}
+
+		return evaluate(tour, PackingPlan.of(z), false);
+
+	}
+
+	/**
+	 * The evaluation function of the problem to simulate the tour of the thief.
+	 * 
+	 * @param pi   the tour
+	 * @param z    the packing plan as a bitset (see PackingPlan)
 	 * @param copy if true the returned solution object has a copy of the tour and
 	 *             packing plan - otherwise just a reference. Be careful here, if
 	 *             you change the tour afterwards, the result will not match
@@ -90,36 +236,74 @@ public class TravelingThiefProblem {
 	 *
 	 * @return A solution objective containing
 	 */
-	public Solution evaluate(List<Integer> pi, List<Boolean> z, boolean copy) {
+	public Solution evaluate(int[] pi, long[] z, boolean copy) {
 
-		if (pi.size() != this.numOfCities || z.size() != this.numOfItems) {
+		EvaluationResult result = new EvaluationResult();
+		evaluate(pi, z, result);
+
+		// create the final solution object
+		Solution s = copy ? new Solution(pi.clone(), z.clone(), this.numOfItems)
+				: new Solution(pi, z, this.numOfItems);
+		s.time = result.time;
+		s.profit = result.profit;
+		s.singleObjective = result.singleObjective;
+
+		return s;
+
+	}
+
+	/**
+	 * The evaluation function of the problem working on primitive arrays. No
+	 * objects are created during the evaluation which makes it the preferred way
+	 * of evaluating many solutions.
+	 * 
+	 * @param pi     the tour
+	 * @param z      the packing plan as a bitset (see PackingPlan)
+	 * @param result the object where time, profit and single-objective value are
+	 *               written to
+	 */
+	public void evaluate(int[] pi, long[] z, EvaluationResult result) {
+
+		if (pi.length != this.numOfCities || z.length != PackingPlan.words(this.numOfItems)) {
 			throw new RuntimeException("Wrong input for traveling thief evaluation!");
-		} else if (pi.get(0) != 0) {
+		} else if (pi[0] != 0) {
 			throw new RuntimeException("Thief must start at city 0!");
 		}
 
+		// answer repeated evaluations from the cache if there is one
+		EvaluationCache cache = this.evaluationCache;
+		long[] fingerprint = null;
+		if (cache != null) {
+			fingerprint = new long[2];
+			EvaluationCache.fingerprint(pi, z, fingerprint);
+			if (cache.lookup(fingerprint[0], fingerprint[1], result))
+				return;
+		}
+
 		// the values that are evaluated in this function
 		double time = 0;
 		double profit = 0;
-		int rank = Integer.MAX_VALUE;
 
 		// attributes in the beginning of the tour
 		double weight = 0;
 
+		ItemIndex index = this.itemIndex;
+		DistanceProvider distances = this.distanceProvider;
+
 		// iterate over all possible cities
 		for (int i = 0; i < this.numOfCities; i++) {
 
 			// the city where the thief currently is
-			int city = pi.get(i);
+			int city = pi[i];
 
 			// for each item index this city
-			for (int j : this.itemsAtCity.get(city)) {
+			for (int slot = index.begin(city), end = index.end(city); slot < end; slot++) {
 
 				// if the thief picks that item
-				if (z.get(j)) {
+				if (PackingPlan.isPicked(z, index.item(slot))) {
 					// update the current weight and profit
-					weight += this.weight[j];
-					profit += this.profit[j];
+					weight += index.weight(slot);
+					profit += index.profit(slot);
 				}
 
 			}
@@ -128,7 +312,6 @@ public class TravelingThiefProblem {
 			if (weight > maxWeight) {
 				time = Double.MAX_VALUE;
 				profit = -Double.MAX_VALUE;
-				rank = Integer.MAX_VALUE;
 				break;
 			}
 
@@ -137,29 +320,19 @@ public class TravelingThiefProblem {
 
 			// increase time by considering the speed - do not forget the way from the last
 			// city to the first!
-			int next = pi.get((i + 1) % this.numOfCities);
-			double distance = Math.ceil(euclideanDistance(city, next));
+			int next = pi[(i + 1) % this.numOfCities];
+			double distance = distances.distance(city, next);
 
 			time += distance / speed;
 
 		}
 
-		// create the final solution object
-		Solution s = new Solution();
-		if (copy) {
-			s.pi = new ArrayList<>(pi);
-			s.z = new ArrayList<>(z);
-		} else {
-			s.pi = pi;
-			s.z = z;
-		}
-		s.time = time;
-		s.profit = profit;
-//		s.setRank(rank);
-		s.singleObjective = profit - this.R * time;
-		s.objectives = Arrays.asList(time, -profit);
+		result.time = time;
+		result.profit = profit;
+		result.singleObjective = profit - this.R * time;
 
-		return s;
+		if (cache != null)
+			cache.put(fingerprint[0], fingerprint[1], result);
 
 	}
 
@@ -175,7 +348,7 @@ public class TravelingThiefProblem {
 	 * @throws RuntimeException
 	 */
 	public void verify(Solution s) throws RuntimeException {
-		Solution correct = this.evaluate(s.pi, s.z);
+		Solution correct = this.evaluate(s.tour, s.packingPlan, false);
 		if (s.time != correct.time || s.profit != correct.profit) {
 			throw new RuntimeException("Pi and Z are not matching with the objectives values time and profit.");
 		}